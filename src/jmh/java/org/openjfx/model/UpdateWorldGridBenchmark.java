@@ -0,0 +1,45 @@
+package org.openjfx.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.staticlibrary.OpenSimplexNoise;
+
+import java.util.concurrent.TimeUnit;
+
+/*Benchmarks updateWorldGrid scrolling one tile in each direction, the Player keeps walking
+  in the same direction so every invocation generates a new edge of the viewport*/
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateWorldGridBenchmark {
+
+    @Param({"UP", "DOWN", "LEFT", "RIGHT"})
+    Movable.Direction direction;
+
+    @Param({"100000"})
+    int entityCount;
+
+    @Param({"5000"})
+    int spawnAreaSide;
+
+    private World world;
+    private int movesPerTile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenSimplexNoise noise = new OpenSimplexNoise(42);
+        world = new World((x, y) -> (noise.eval(x, y) + 1) / 2, 42, spawnAreaSide, entityCount, entityCount);
+        movesPerTile = (int) Math.round(1 / world.player.getMoveSpeed());
+    }
+
+    @Benchmark
+    public void scrollOneTile() {
+        for (int i = 0; i < movesPerTile; i++) {
+            world.player.move(direction);
+        }
+        world.updateWorldGrid();
+    }
+}
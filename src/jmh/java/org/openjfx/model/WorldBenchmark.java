@@ -0,0 +1,67 @@
+package org.openjfx.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.model.noise.NoiseGenerator;
+import org.openjfx.staticlibrary.OpenSimplexNoise;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*Benchmarks of the per tick World paths. The world is populated around the Player before
+  measuring, so checkIfEntitiesActive and moveMobs run in their steady state*/
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+
+    @Param({"100000", "1000000"})
+    int entityCount;
+
+    @Param({"500", "5000"})
+    int spawnAreaSide;
+
+    private NoiseGenerator noiseGenerator;
+    private World world;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenSimplexNoise noise = new OpenSimplexNoise(42);
+        noiseGenerator = (x, y) -> (noise.eval(x, y) + 1) / 2;
+        world = newWorld();
+        world.checkIfEntitiesActive();
+    }
+
+    @Benchmark
+    public World construction() {
+        return newWorld();
+    }
+
+    @Benchmark
+    public void checkIfEntitiesActive() {
+        world.checkIfEntitiesActive();
+    }
+
+    @Benchmark
+    public void moveMobs() {
+        world.moveMobs();
+    }
+
+    @Benchmark
+    public boolean isPathFree() {
+        return world.isPathFree(world.player, world.getActiveEnemies());
+    }
+
+    @Benchmark
+    public List<Combatant> combatantAttacks() {
+        world.player.attackCooldownTicker = 20;
+        return world.combatantAttacks(world.player, world.getActiveEnemies());
+    }
+
+    private World newWorld() {
+        return new World(noiseGenerator, 42, spawnAreaSide, entityCount, entityCount);
+    }
+}
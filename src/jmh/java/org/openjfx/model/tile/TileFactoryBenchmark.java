@@ -0,0 +1,38 @@
+package org.openjfx.model.tile;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjfx.staticlibrary.OpenSimplexNoise;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileFactoryBenchmark {
+
+    //Side of the square area tile coordinates are drawn from
+    @Param({"64", "5000"})
+    int spawnAreaSide;
+
+    private TileFactory tileFactory;
+    private int x = 0;
+    private int y = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenSimplexNoise noise = new OpenSimplexNoise(42);
+        tileFactory = new TileFactory((xCoord, yCoord) -> (noise.eval(xCoord, yCoord) + 1) / 2);
+    }
+
+    @Benchmark
+    public TileType generateTile() {
+        if (++x == spawnAreaSide) {
+            x = 0;
+            y = (y + 1) % spawnAreaSide;
+        }
+        return tileFactory.generateTile(x, y);
+    }
+}
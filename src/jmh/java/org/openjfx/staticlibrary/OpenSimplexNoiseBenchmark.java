@@ -0,0 +1,53 @@
+package org.openjfx.staticlibrary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpenSimplexNoiseBenchmark {
+
+    //Side of the square area sample coordinates are drawn from
+    @Param({"64", "5000"})
+    int spawnAreaSide;
+
+    private OpenSimplexNoise noise;
+    private double x = 0;
+    private double y = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        noise = new OpenSimplexNoise(42);
+    }
+
+    @Benchmark
+    public double eval2D() {
+        step();
+        return noise.eval(x, y);
+    }
+
+    @Benchmark
+    public double eval3D() {
+        step();
+        return noise.eval(x, y, x - y);
+    }
+
+    @Benchmark
+    public double eval4D() {
+        step();
+        return noise.eval(x, y, x - y, x + y);
+    }
+
+    private void step() {
+        x += 0.37;
+        if (x >= spawnAreaSide) {
+            x = 0;
+            y = (y + 1) % spawnAreaSide;
+        }
+    }
+}
@@ -1,45 +1,91 @@
 package org.openjfx.controller;
 
+import javafx.application.Platform;
 import javafx.scene.input.KeyCode;
-import javafx.animation.AnimationTimer;
 import javafx.stage.Stage;
 import org.openjfx.model.Model;
+import org.openjfx.model.World;
+import org.openjfx.model.WorldSave;
+import org.openjfx.model.noise.CachedNoiseGenerator;
 import org.openjfx.utils.event.EventListener;
+import org.openjfx.utils.logging.GameLog;
+import org.openjfx.utils.random.RandomStreams;
 import org.openjfx.view.View;
 import org.openjfx.view.ViewEventMessages;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+
+/*The simulation runs on its own thread driven by a HeadlessController, key presses are posted
+  to the Model and handled on that thread. The View renders the snapshots the Model publishes*/
 
 public class Controller {
+    private static final Path savePath = Paths.get("world.sav");
+    private static final Path regionDirectory = Paths.get("world.regions");
+    private static final int maxResidentChunks = 256;
+
     private Model model;
-    private long previousTime = 0;
+    private HeadlessController simulation;
 
     public Controller(Stage stage) {
-        model = new Model(OpenSimplexAdapter.getInstance());
+        model = loadOrCreateModel();
+        try {
+            model.enableChunkPersistence(regionDirectory, maxResidentChunks);
+        } catch (IOException e) {
+            System.err.println("Could not use " + regionDirectory + ", keeping every chunk in memory: " + e.getMessage());
+        }
         View view = new View(stage, model.hasUpdateEvent);
-        new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                long deltaTime = now - previousTime;
-                //System.out.println(deltaTime / 1000000);
-                if(deltaTime / 100000 > 500) {
-                    model.moveMobsInWorld();
-                    model.mobsAttack();
-                    model.modelHasBeenUpdated();
-                    previousTime = now;
-                }
+        view.setProfiler(model.getProfiler());
+        //Game events are only logged when asked for, for example with -Dgame.log=DEBUG
+        String logLevel = System.getProperty("game.log");
+        if (logLevel != null) {
+            try {
+                model.getLog().setLevel(GameLog.Level.valueOf(logLevel.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown game.log level " + logLevel + ", expected one of " + Arrays.toString(GameLog.Level.values()) + ", logging stays OFF");
             }
-        }.start();
+        }
         model.modelHasBeenUpdated();
         view.getViewEvent().addListener(new EventListener() {
             @Override
             public void func(Object emsg, Object data) {
                 switch((ViewEventMessages) emsg) {
                     case KEYPRESS:
-                        handleKeyPress((KeyCode) data);
+                        KeyCode keyCode = (KeyCode) data;
+                        //The profiler overlay only concerns the View, it is toggled right away on the JavaFX thread
+                        if (keyCode == KeyCode.F3) {
+                            view.toggleProfilerOverlay();
+                        } else {
+                            model.post(() -> handleKeyPress(keyCode));
+                        }
                         break;
                 }
             }
         });
+        simulation = new HeadlessController(model);
+        simulation.start();
+    }
+
+    /*Continues the game saved at savePath if there is one, otherwise starts a new world.
+      The terrain noise is seeded with the world seed, so a saved world gets its terrain back*/
+
+    private Model loadOrCreateModel() {
+        if (Files.exists(savePath)) {
+            try {
+                WorldSave save = WorldSave.read(savePath);
+                OpenSimplexAdapter.getInstance().setSeed(World.noiseSeedOf(save.getSeed()));
+                return Model.load(save, new CachedNoiseGenerator(OpenSimplexAdapter.getInstance()), Platform::runLater);
+            } catch (IOException e) {
+                System.err.println("Could not load " + savePath + ", starting a new world: " + e.getMessage());
+            }
+        }
+        long seed = RandomStreams.randomSeed();
+        OpenSimplexAdapter.getInstance().setSeed(World.noiseSeedOf(seed));
+        return new Model(new CachedNoiseGenerator(OpenSimplexAdapter.getInstance()), seed, Platform::runLater);
     }
 
     private void handleKeyPress(KeyCode keyCode) {
@@ -62,6 +108,12 @@ public class Controller {
             case E:
                 model.playerInteracts();
                 break;
+            case F5:
+                model.save(savePath).exceptionally(e -> {
+                    System.err.println("Could not save " + savePath + ": " + e.getMessage());
+                    return null;
+                });
+                break;
             case DIGIT1:
             case DIGIT2:
             case DIGIT3:
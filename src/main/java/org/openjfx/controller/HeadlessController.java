@@ -0,0 +1,138 @@
+package org.openjfx.controller;
+
+import org.openjfx.model.Model;
+import org.openjfx.model.World;
+import org.openjfx.model.noise.CachedNoiseGenerator;
+
+import java.util.concurrent.locks.LockSupport;
+
+/*Drives a Model without any JavaFX dependency, either in real time on a fixed timestep
+  on its own thread, or for a fixed number of ticks as fast as possible.
+  Used as the simulation thread of the game and to load test the world logic on machines without a display*/
+
+public class HeadlessController {
+    public static final long defaultTickNanos = 50_000_000L;
+
+    //If the loop falls further behind than this it skips ahead instead of trying to catch up
+    private static final int maxTicksBehind = 5;
+    private static final long nanosPerSecond = 1_000_000_000L;
+
+    private final Model model;
+    private final long tickNanos;
+    private volatile boolean running = false;
+    private volatile long tickCount = 0;
+    private volatile double ticksPerSecond = 0;
+    private Thread thread;
+
+    public HeadlessController(Model model) {
+        this(model, defaultTickNanos);
+    }
+
+    public HeadlessController(Model model, long tickNanos) {
+        this.model = model;
+        this.tickNanos = tickNanos;
+    }
+
+    //Starts ticking the model every long tickNanos on a background thread
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::runFixedTimestep, "headless-simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /*Runs long ticks ticks back to back on the calling thread and returns the time it took in nanoseconds,
+      getTicksPerSecond() is updated with the rate reached*/
+
+    public long runTicks(long ticks) {
+        final long start = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            tick();
+        }
+        final long elapsed = System.nanoTime() - start;
+        ticksPerSecond = elapsed > 0 ? ticks * (double) nanosPerSecond / elapsed : 0;
+        return elapsed;
+    }
+
+    private void runFixedTimestep() {
+        long nextTick = System.nanoTime();
+        long windowStart = nextTick;
+        long ticksInWindow = 0;
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                //A tick that failed half way leaves the model in an unknown state, so the simulation stops
+                System.err.println("Simulation stopped after tick " + tickCount + ": " + e);
+                e.printStackTrace();
+                running = false;
+                return;
+            }
+            ticksInWindow++;
+            nextTick += tickNanos;
+            if (now - nextTick > maxTicksBehind * tickNanos) {
+                nextTick = now;
+            }
+            if (now - windowStart >= nanosPerSecond) {
+                ticksPerSecond = ticksInWindow * (double) nanosPerSecond / (now - windowStart);
+                windowStart = now;
+                ticksInWindow = 0;
+            }
+        }
+    }
+
+    private void tick() {
+        model.tick();
+        tickCount++;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    //Usage: HeadlessController [ticks] [seed], runs the given number of ticks as fast as possible and prints the tick rate
+    public static void main(String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        Model model;
+        if (args.length > 1) {
+            long seed = Long.parseLong(args[1]);
+            OpenSimplexAdapter.getInstance().setSeed(World.noiseSeedOf(seed));
+            model = new Model(new CachedNoiseGenerator(OpenSimplexAdapter.getInstance()), seed);
+        } else {
+            model = new Model(new CachedNoiseGenerator(OpenSimplexAdapter.getInstance()));
+        }
+        HeadlessController controller = new HeadlessController(model);
+        long elapsed = controller.runTicks(ticks);
+        System.out.printf("Ran %d ticks in %.1f ms (%.1f ticks/s)%n", ticks, elapsed / 1e6, controller.getTicksPerSecond());
+        System.out.print(model.getProfiler().summary());
+    }
+}
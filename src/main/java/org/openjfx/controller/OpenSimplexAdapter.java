@@ -2,8 +2,7 @@ package org.openjfx.controller;
 
 import org.openjfx.model.noise.NoiseGenerator;
 import org.openjfx.staticlibrary.OpenSimplexNoise;
-
-import java.util.Random;
+import org.openjfx.utils.random.RandomStreams;
 
 public class OpenSimplexAdapter implements NoiseGenerator {
 
@@ -11,7 +10,7 @@ public class OpenSimplexAdapter implements NoiseGenerator {
     private static OpenSimplexAdapter instance;
 
     private OpenSimplexAdapter() {
-        this(new Random().nextLong());
+        this(RandomStreams.randomSeed());
     }
 
     private OpenSimplexAdapter(long seed) {
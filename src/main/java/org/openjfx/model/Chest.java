@@ -1,15 +1,27 @@
 package org.openjfx.model;
 
+import java.util.SplittableRandom;
+
 public class Chest extends Entity{
 
     private Item[] inventory = new Item[4];
     public Chest(String a,double b,double c){
+        this(a,b,c,new SplittableRandom());
+    }
+
+    public Chest(String a,double b,double c,SplittableRandom rand){
         super(a,b,c);
         for(int r = 0;r < 4; r++){
-            inventory[r] = ItemFactory.getInstance().getRandomItem();
+            inventory[r] = ItemFactory.getInstance().getRandomItem(rand);
         }
     }
 
+    //Used when loading a saved game
+    Chest(String a, double b, double c, Item[] items){
+        super(a,b,c);
+        System.arraycopy(items, 0, inventory, 0, inventory.length);
+    }
+
     public Item getItem(int index) {
         return inventory[index];
     }
@@ -1,8 +1,10 @@
 package org.openjfx.model;
 
+import java.util.SplittableRandom;
+
 public class ChestFactory {
-    public Chest generateChest(int spawnAreaSide) {
-        Coordinates coordinates = Coordinates.generateRandomCoordinates(spawnAreaSide);
-        return new Chest("Chest",coordinates.getxCoord(),coordinates.getyCoord());
+    public Chest generateChest(SplittableRandom rand, int minX, int minY, int areaSide) {
+        Coordinates coordinates = Coordinates.generateRandomCoordinates(rand, minX, minY, areaSide);
+        return new Chest("Chest", coordinates.getxCoord(), coordinates.getyCoord(), rand);
     }
 }
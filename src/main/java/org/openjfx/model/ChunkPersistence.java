@@ -0,0 +1,383 @@
+package org.openjfx.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*Moves the inactive enemies and chests of chunks far from the Player out of memory into region files.
+  A chunk is either resident, its entities are in the inactive grids of the World, stored, its entities
+  are only on disk, or loading. At most maxResidentChunks chunks are kept resident, when there are more the
+  least recently used ones outside the kept range around the Player are stored.
+  All disk access happens in order on one background thread, the grids are only changed by the thread
+  calling the methods of this class, which is the thread that ticks the World.
+  A failing disk is reported once, from then on no more chunks are stored and every chunk stays resident.
+  Chunks whose write failed are kept in memory on the io thread and loaded from there.
+  The terrain is not stored since it is always generated from the seed*/
+
+class ChunkPersistence {
+    private static final int inventorySize = 4;
+    private static final byte emptySlot = 0;
+    private static final byte weapon = 1;
+    private static final byte armor = 2;
+    private static final Movable.Direction[] directions = Movable.Direction.values();
+
+    private final Path directory;
+    private final int maxResidentChunks;
+    private final int chunkSize;
+
+    //Resident chunks in least recently used first order, the values are not used
+    private final LinkedHashMap<Long, Boolean> residentChunks = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<Long> storedChunks = new HashSet<>();
+    private final Map<Long, Future<byte[]>> loadingChunks = new HashMap<>();
+
+    private final ExecutorService io;
+    //Only used on the io thread
+    private final Map<Long, RegionFile> regions = new HashMap<>();
+    //Data of the chunks that could not be written, only used on the io thread
+    private final Map<Long, byte[]> unwritten = new HashMap<>();
+    private volatile IOException failure;
+    private boolean isFailureReported = false;
+
+    //Region files already in Path directory are removed, they belong to an earlier session
+    ChunkPersistence(Path directory, int maxResidentChunks, int chunkSize) throws IOException {
+        this.directory = directory;
+        this.maxResidentChunks = maxResidentChunks;
+        this.chunkSize = chunkSize;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> oldRegions = Files.newDirectoryStream(directory, "r.*.region")) {
+            for (Path oldRegion : oldRegions) {
+                Files.delete(oldRegion);
+            }
+        }
+        io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chunk-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*Marks the chunks overlapping double range around (x, y) as recently used and starts loading
+      the stored ones among them*/
+
+    void keepAround(double x, double y, double range) {
+        hasFailed();
+        final int minChunkX = chunkOf(x - range);
+        final int maxChunkX = chunkOf(x + range);
+        final int minChunkY = chunkOf(y - range);
+        final int maxChunkY = chunkOf(y + range);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+                touch(Coordinates.pack(chunkX, chunkY));
+            }
+        }
+    }
+
+    //Called when an entity is put in the inactive grids, a stored chunk it lands in is loaded so nothing is overwritten
+    void entityAdded(Entity entity) {
+        touch(Coordinates.pack(chunkOf(entity.getXcoord()), chunkOf(entity.getYcoord())));
+    }
+
+    /*Adds the entities of every finished load to the grids, loads of chunks overlapping double range
+      around (x, y) are waited for since their entities are needed right away*/
+
+    void applyLoads(double x, double y, double range, SpatialGrid<Combatant> enemies, SpatialGrid<Chest> chests) {
+        final int minChunkX = chunkOf(x - range);
+        final int maxChunkX = chunkOf(x + range);
+        final int minChunkY = chunkOf(y - range);
+        final int maxChunkY = chunkOf(y + range);
+        Iterator<Map.Entry<Long, Future<byte[]>>> loads = loadingChunks.entrySet().iterator();
+        while (loads.hasNext()) {
+            Map.Entry<Long, Future<byte[]>> load = loads.next();
+            final long chunkKey = load.getKey();
+            final int chunkX = Coordinates.unpackX(chunkKey);
+            final int chunkY = Coordinates.unpackY(chunkKey);
+            final boolean isNeeded = chunkX >= minChunkX && chunkX <= maxChunkX && chunkY >= minChunkY && chunkY <= maxChunkY;
+            if (!isNeeded && !load.getValue().isDone()) {
+                continue;
+            }
+            try {
+                decode(await(load.getValue()), enemies::add, chests::add);
+            } catch (UncheckedIOException e) {
+                //The chunk counts as resident from here on, the entities that could not be read are lost
+                System.err.println("Lost enemies and chests of chunk " + chunkX + ", " + chunkY + ": " + e.getCause().getMessage());
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+                hasFailed();
+            }
+            loads.remove();
+            residentChunks.put(chunkKey, Boolean.TRUE);
+        }
+    }
+
+    /*Stores least recently used chunks until at most maxResidentChunks are resident,
+      chunks overlapping double keptRange around (x, y) are never stored*/
+
+    void evictOverflow(double x, double y, double keptRange, SpatialGrid<Combatant> enemies, SpatialGrid<Chest> chests) {
+        if (hasFailed()) {
+            return;
+        }
+        final int minChunkX = chunkOf(x - keptRange);
+        final int maxChunkX = chunkOf(x + keptRange);
+        final int minChunkY = chunkOf(y - keptRange);
+        final int maxChunkY = chunkOf(y + keptRange);
+        Iterator<Long> leastRecentlyUsed = residentChunks.keySet().iterator();
+        while (residentChunks.size() > maxResidentChunks && leastRecentlyUsed.hasNext()) {
+            final long chunkKey = leastRecentlyUsed.next();
+            final int chunkX = Coordinates.unpackX(chunkKey);
+            final int chunkY = Coordinates.unpackY(chunkKey);
+            if (chunkX >= minChunkX && chunkX <= maxChunkX && chunkY >= minChunkY && chunkY <= maxChunkY) {
+                continue;
+            }
+            leastRecentlyUsed.remove();
+
+            List<Combatant> chunkEnemies = new ArrayList<>();
+            List<Chest> chunkChests = new ArrayList<>();
+            enemies.removeCell(chunkX, chunkY, chunkEnemies);
+            chests.removeCell(chunkX, chunkY, chunkChests);
+            if (chunkEnemies.isEmpty() && chunkChests.isEmpty()) {
+                continue;
+            }
+            final byte[] data = encode(chunkEnemies, chunkChests);
+            storedChunks.add(chunkKey);
+            io.execute(() -> {
+                try {
+                    region(chunkX, chunkY).write(localOf(chunkX), localOf(chunkY), data);
+                } catch (IOException e) {
+                    unwritten.put(chunkKey, data);
+                    failure = e;
+                }
+            });
+        }
+    }
+
+    /*Starts reading the data of every stored or loading chunk on the io thread without waiting for it.
+      The reads are queued behind the pending writes, so they see the chunks as they are now even if the
+      chunks are loaded or stored again before the reads finish. Decode the data with decodeStored()*/
+
+    List<Future<byte[]>> readStored() {
+        hasFailed();
+        List<Future<byte[]>> reads = new ArrayList<>(loadingChunks.values());
+        for (long chunkKey : storedChunks) {
+            final int chunkX = Coordinates.unpackX(chunkKey);
+            final int chunkY = Coordinates.unpackY(chunkKey);
+            reads.add(io.submit(() -> {
+                byte[] data = unwritten.get(chunkKey);
+                return data != null ? data : region(chunkX, chunkY).read(localOf(chunkX), localOf(chunkY));
+            }));
+        }
+        return reads;
+    }
+
+    /*Waits for the reads of readStored() and calls the actions for new copies of the entities in them.
+      Can be called on any thread, the copies are not in the World*/
+
+    static void decodeStored(List<Future<byte[]>> reads, Consumer<Combatant> enemyAction, Consumer<Chest> chestAction) {
+        for (Future<byte[]> read : reads) {
+            decode(await(read), enemyAction, chestAction);
+        }
+    }
+
+    int getResidentChunkCount() {
+        return residentChunks.size();
+    }
+
+    int getStoredChunkCount() {
+        return storedChunks.size() + loadingChunks.size();
+    }
+
+    //Waits for pending writes and closes the region files, entities of stored chunks stay on disk
+    void close() {
+        io.execute(() -> {
+            for (RegionFile region : regions.values()) {
+                try {
+                    region.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            regions.clear();
+        });
+        io.shutdown();
+        try {
+            io.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void touch(long chunkKey) {
+        if (storedChunks.remove(chunkKey)) {
+            final int chunkX = Coordinates.unpackX(chunkKey);
+            final int chunkY = Coordinates.unpackY(chunkKey);
+            //The data is removed from the region when loaded, the chunk is written again when it is stored next time
+            loadingChunks.put(chunkKey, io.submit(() -> {
+                byte[] unwrittenData = unwritten.remove(chunkKey);
+                if (unwrittenData != null) {
+                    return unwrittenData;
+                }
+                RegionFile region = region(chunkX, chunkY);
+                byte[] data = region.read(localOf(chunkX), localOf(chunkY));
+                region.remove(localOf(chunkX), localOf(chunkY));
+                return data;
+            }));
+        } else if (!loadingChunks.containsKey(chunkKey)) {
+            residentChunks.put(chunkKey, Boolean.TRUE);
+        }
+    }
+
+    private RegionFile region(int chunkX, int chunkY) throws IOException {
+        final int regionX = Math.floorDiv(chunkX, RegionFile.regionSide);
+        final int regionY = Math.floorDiv(chunkY, RegionFile.regionSide);
+        final long regionKey = Coordinates.pack(regionX, regionY);
+        RegionFile region = regions.get(regionKey);
+        if (region == null) {
+            region = new RegionFile(directory.resolve("r." + regionX + "." + regionY + ".region"));
+            regions.put(regionKey, region);
+        }
+        return region;
+    }
+
+    private static int localOf(int chunkCoord) {
+        return Math.floorMod(chunkCoord, RegionFile.regionSide);
+    }
+
+    private int chunkOf(double coord) {
+        return (int) Math.floor(coord / chunkSize);
+    }
+
+    //Reports a failure of the disk the first time it is seen, returns true once the disk has failed
+    private boolean hasFailed() {
+        if (failure == null) {
+            return false;
+        }
+        if (!isFailureReported) {
+            isFailureReported = true;
+            System.err.println("Chunk storage failed, keeping every chunk in memory: " + failure.getMessage());
+        }
+        return true;
+    }
+
+    private static byte[] await(Future<byte[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading a chunk", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Could not load a chunk",
+                    e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause()));
+        }
+    }
+
+    /*Chunk data: int enemy count, per enemy UTF id, double x, double y, int hp, int atk, int def,
+      float atkRange, int cooldown, byte direction, long randomSeed, then int chest count, per chest UTF id, double x,
+      double y and inventorySize items of byte kind followed by UTF id, int bonus and boolean selected
+      unless the kind is an empty slot*/
+
+    private static byte[] encode(List<Combatant> enemies, List<Chest> chests) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + enemies.size() * 48 + chests.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(enemies.size());
+            for (Combatant enemy : enemies) {
+                out.writeUTF(enemy.getId());
+                out.writeDouble(enemy.getXcoord());
+                out.writeDouble(enemy.getYcoord());
+                out.writeInt(enemy.getHp());
+                out.writeInt(enemy.getAtk());
+                out.writeInt(enemy.getDef());
+                out.writeFloat((float) enemy.getAtkRange());
+                out.writeInt(enemy.getAttackCooldownTicker());
+                out.writeByte(enemy.getDirection().ordinal());
+                out.writeLong(enemy.getRandomSeed());
+            }
+            out.writeInt(chests.size());
+            for (Chest chest : chests) {
+                out.writeUTF(chest.getId());
+                out.writeDouble(chest.getXcoord());
+                out.writeDouble(chest.getYcoord());
+                for (int i = 0; i < inventorySize; i++) {
+                    Item item = chest.getItem(i);
+                    if (item instanceof Weapon) {
+                        out.writeByte(weapon);
+                        out.writeUTF(item.getId());
+                        out.writeInt((int) ((Weapon) item).getAtk());
+                    } else if (item instanceof Armor) {
+                        out.writeByte(armor);
+                        out.writeUTF(item.getId());
+                        out.writeInt((int) ((Armor) item).getDef());
+                    } else {
+                        out.writeByte(emptySlot);
+                        continue;
+                    }
+                    out.writeBoolean(item.getIsItemSelected());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decode(byte[] data, Consumer<Combatant> enemyAction, Consumer<Chest> chestAction) {
+        if (data == null) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final int enemyCount = in.readInt();
+            for (int i = 0; i < enemyCount; i++) {
+                Enemy enemy = new Enemy(in.readUTF(), in.readDouble(), in.readDouble(), 0, 0, 0, 0);
+                enemy.hp = in.readInt();
+                enemy.atk = in.readInt();
+                enemy.def = in.readInt();
+                enemy.atkRange = in.readFloat();
+                enemy.attackCooldownTicker = in.readInt();
+                enemy.direction = directions[in.readByte()];
+                enemy.randomSeed = in.readLong();
+                enemyAction.accept(enemy);
+            }
+            final int chestCount = in.readInt();
+            for (int i = 0; i < chestCount; i++) {
+                String id = in.readUTF();
+                double x = in.readDouble();
+                double y = in.readDouble();
+                Item[] items = new Item[inventorySize];
+                for (int j = 0; j < inventorySize; j++) {
+                    final byte kind = in.readByte();
+                    if (kind == emptySlot) {
+                        continue;
+                    }
+                    String itemId = in.readUTF();
+                    int bonus = in.readInt();
+                    items[j] = kind == weapon ? new Weapon(itemId, bonus) : new Armor(itemId, bonus);
+                    if (in.readBoolean()) {
+                        items[j].setToSelected();
+                    }
+                }
+                chestAction.accept(new Chest(id, x, y, items));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt chunk data", e);
+        }
+    }
+}
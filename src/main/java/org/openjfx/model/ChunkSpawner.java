@@ -0,0 +1,122 @@
+package org.openjfx.model;
+
+import org.openjfx.utils.collection.LongHashMap;
+import org.openjfx.utils.random.RandomStreams;
+
+import java.util.SplittableRandom;
+
+/*Populates the world with enemies and chests one chunk at a time. A chunk is a square of
+  int chunkSize tiles and is populated the first time it comes within range of the Player.
+  The content of a chunk only depends on long seed and the chunk position, every chunk is generated
+  from its own random stream so a chunk is generated the same way no matter when or in which order it is reached*/
+
+public class ChunkSpawner {
+    private final long seed;
+    private final int chunkSize;
+    private final int spawnAreaSide;
+    private final double enemiesPerChunk;
+    private final double chestsPerChunk;
+    private final EnemyFactory enemyFactory = new EnemyFactory();
+    private final ChestFactory chestFactory = new ChestFactory();
+    private final LongHashMap<Boolean> populatedChunks = new LongHashMap<>();
+
+    /*int enemyCount and int chestCount are the number of enemies and chests expected
+      in the whole spawn area, they are spread evenly over its chunks*/
+
+    public ChunkSpawner(long seed, int chunkSize, int spawnAreaSide, int enemyCount, int chestCount) {
+        this.seed = seed;
+        this.chunkSize = chunkSize;
+        this.spawnAreaSide = spawnAreaSide;
+        final double chunksInSpawnArea = ((double) spawnAreaSide * spawnAreaSide) / (chunkSize * chunkSize);
+        this.enemiesPerChunk = enemyCount / chunksInSpawnArea;
+        this.chestsPerChunk = chestCount / chunksInSpawnArea;
+    }
+
+    /*Populates every not yet populated chunk overlapping double range around (x, y),
+      generated enemies and chests are added to the given grids*/
+
+    public void populateAround(double x, double y, double range, SpatialGrid<Combatant> enemies, SpatialGrid<Chest> chests) {
+        final int minChunkX = chunkOf(x - range);
+        final int maxChunkX = chunkOf(x + range);
+        final int minChunkY = chunkOf(y - range);
+        final int maxChunkY = chunkOf(y + range);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+                if (populatedChunks.put(SpatialGrid.cellKey(chunkX, chunkY), Boolean.TRUE) == null) {
+                    populateChunk(chunkX, chunkY, enemies, chests);
+                }
+            }
+        }
+    }
+
+    private void populateChunk(int chunkX, int chunkY, SpatialGrid<Combatant> enemies, SpatialGrid<Chest> chests) {
+        final int minX = chunkX * chunkSize;
+        final int minY = chunkY * chunkSize;
+        if (!overlapsSpawnArea(minX, minY)) {
+            return;
+        }
+        SplittableRandom rand = RandomStreams.stream(seed, SpatialGrid.cellKey(chunkX, chunkY));
+
+        int enemyAmount = amountInChunk(rand, enemiesPerChunk);
+        for (int i = 0; i < enemyAmount; i++) {
+            Combatant enemy = enemyFactory.generateEnemy(rand, minX, minY, chunkSize);
+            if (isInSpawnArea(enemy)) {
+                enemies.add(enemy);
+            }
+        }
+
+        int chestAmount = amountInChunk(rand, chestsPerChunk);
+        for (int i = 0; i < chestAmount; i++) {
+            Chest chest = chestFactory.generateChest(rand, minX, minY, chunkSize);
+            if (isInSpawnArea(chest)) {
+                chests.add(chest);
+            }
+        }
+    }
+
+    //Rounds the expected amount up or down at random so the average over many chunks is kept
+    private int amountInChunk(SplittableRandom rand, double expected) {
+        int amount = (int) expected;
+        if (rand.nextDouble() < expected - amount) {
+            amount++;
+        }
+        return amount;
+    }
+
+    private boolean overlapsSpawnArea(int minX, int minY) {
+        final int halfSide = spawnAreaSide / 2;
+        return minX + chunkSize > -halfSide && minX < spawnAreaSide - halfSide
+            && minY + chunkSize > -halfSide && minY < spawnAreaSide - halfSide;
+    }
+
+    private boolean isInSpawnArea(Entity entity) {
+        final int halfSide = spawnAreaSide / 2;
+        return entity.getXcoord() >= -halfSide && entity.getXcoord() < spawnAreaSide - halfSide
+            && entity.getYcoord() >= -halfSide && entity.getYcoord() < spawnAreaSide - halfSide;
+    }
+
+    private int chunkOf(double coord) {
+        return (int) Math.floor(coord / chunkSize);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    //Marks a chunk as populated without generating its content, used when restoring a saved world
+    void markPopulated(long chunkKey) {
+        populatedChunks.put(chunkKey, Boolean.TRUE);
+    }
+
+    long[] getPopulatedChunkKeys() {
+        final long[] chunkKeys = new long[populatedChunks.size()];
+        final int[] index = {0};
+        populatedChunks.forEach((key, value) -> chunkKeys[index[0]++] = key);
+        return chunkKeys;
+    }
+
+    public int getPopulatedChunkCount() {
+        return populatedChunks.size();
+    }
+}
@@ -1,5 +1,8 @@
 package org.openjfx.model;
 
+/*While a Combatant is in a CombatantStore its position, stats, cooldown and direction live in the
+  store and the fields below are only updated again when it is removed from the store*/
+
 public abstract class Combatant extends Entity implements Movable{
     protected int hp;
     protected int atk;
@@ -10,6 +13,11 @@ public abstract class Combatant extends Entity implements Movable{
     protected int attackCooldownTicker = 20;
     Direction direction = Direction.LEFT;
 
+    CombatantStore store;
+    int slot = -1;
+    //Seeds the random decisions of this Combatant, so they do not depend on the order Combatants are updated in
+    long randomSeed;
+
     public Combatant(String i, double a, double b, int HP, int ATK, double ATKRANGE, int defense){
         super(i, a, b);
         this .hp = HP;
@@ -19,26 +27,70 @@ public abstract class Combatant extends Entity implements Movable{
 
     }
 
+    @Override
+    public String getId() {
+        return store == null ? id : store.getTypeId(slot);
+    }
+
+    @Override
+    public double getXcoord() {
+        return store == null ? coords.getxCoord() : store.getX(slot);
+    }
+
+    @Override
+    public double getYcoord() {
+        return store == null ? coords.getyCoord() : store.getY(slot);
+    }
+
+    @Override
+    public Coordinates getCoords() {
+        return store == null ? coords : new Coordinates(store.getX(slot), store.getY(slot));
+    }
+
     public int getDef() {
-        return def;
+        return store == null ? def : store.getDef(slot);
     }
 
     public abstract boolean canAttack(); //Decides if the Combatant is allowed to attack another unit
 
     public void setAttackOnCooldown(){ //Sets the Combatants ability to attack on Cooldown
-        attackCooldownTicker = 0;
+        if (store == null) {
+            attackCooldownTicker = 0;
+        } else {
+            store.setCooldown(slot, 0);
+        }
+    }
+
+    protected int getAttackCooldownTicker() {
+        return store == null ? attackCooldownTicker : store.getCooldown(slot);
+    }
+
+    protected void incAttackCooldownTicker() {
+        if (store == null) {
+            attackCooldownTicker++;
+        } else {
+            store.setCooldown(slot, store.getCooldown(slot) + 1);
+        }
+    }
+
+    public Direction getDirection() {
+        return store == null ? direction : store.getDirection(slot);
     }
 
     public void setDirection(Direction direction) {
-        this.direction = direction;
+        if (store == null) {
+            this.direction = direction;
+        } else {
+            store.setDirection(slot, direction);
+        }
     }
 
     public int getHp() {
-        return hp;
+        return store == null ? hp : store.getHp(slot);
     }
 
     public int getAtk() {
-        return atk;
+        return store == null ? atk : store.getAtk(slot);
     }
 
     public double getAtkRange() {
@@ -46,14 +98,23 @@ public abstract class Combatant extends Entity implements Movable{
     }
 
     public void decHp(int decAmount) {
-
-        hp = hp - decAmount;
+        if (store == null) {
+            hp = hp - decAmount;
+        } else {
+            store.addHp(slot, -decAmount);
+        }
     }
 
     public void incHp(int incAmount){
+        if (store == null) {
+            hp = hp + incAmount;
+        } else {
+            store.addHp(slot, incAmount);
+        }
+    }
 
-        hp = hp + incAmount;
-
+    long getRandomSeed() {
+        return randomSeed;
     }
 
     public double getMoveSpeed() {
@@ -62,26 +123,30 @@ public abstract class Combatant extends Entity implements Movable{
 
     @Override
     public void move(Direction direction){
+        double xDist = 0;
+        double yDist = 0;
         switch(direction){
             case UP:
-                coords.yCoord -= moveSpeed;
-                this.direction = Direction.UP;
+                yDist = -moveSpeed;
                 break;
 
             case DOWN:
-                coords.yCoord += moveSpeed;
-                this.direction = Direction.DOWN;
+                yDist = moveSpeed;
                 break;
 
             case LEFT:
-                coords.xCoord -= moveSpeed;
-                this.direction = Direction.LEFT;
+                xDist = -moveSpeed;
                 break;
 
             case RIGHT:
-                coords.xCoord += moveSpeed;
-                this.direction = Direction.RIGHT;
+                xDist = moveSpeed;
                 break;
         }
+        if (store == null) {
+            coords = coords.translate(xDist, yDist);
+        } else {
+            store.translate(slot, xDist, yDist);
+        }
+        setDirection(direction);
     }
 }
@@ -0,0 +1,286 @@
+package org.openjfx.model;
+
+import org.openjfx.utils.collection.LongIntHashMap;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/*Keeps the state of active Combatants in parallel primitive arrays, one slot per Combatant.
+  A Combatant added to the store is bound to its slot and reads and writes its position, stats,
+  cooldown and direction there, until it is removed and the state is copied back into the Combatant.
+  Removing swaps the last slot into the freed one, so the slots stay packed from 0 to size() - 1
+  and the order of the store changes when Combatants are removed.
+  The store is also a broadphase for collision and attack range queries: the slots are linked into one
+  list per cell of cellSize x cellSize tiles, and a Combatant is moved to another list as soon as it
+  crosses into another cell, so a query only walks the lists of the cells around it*/
+
+public class CombatantStore extends AbstractList<Combatant> implements RandomAccess {
+    private static final Movable.Direction[] directions = Movable.Direction.values();
+
+    private int size = 0;
+    private Combatant[] handles;
+    private double[] x;
+    private double[] y;
+    private int[] hp;
+    private int[] atk;
+    private int[] def;
+    private int[] cooldown;
+    private byte[] direction;
+    private byte[] type;
+    //The ids of the Combatant types seen so far, byte type indexes into it
+    private final List<String> typeIds = new ArrayList<>();
+
+    static final int cellSize = 2;
+    //First slot of the list of each cell that holds a Combatant, packed with Coordinates.pack
+    private final LongIntHashMap cellHeads = new LongIntHashMap();
+    private long[] cellKeys;
+    private int[] nextInCell;
+    private int[] previousInCell;
+
+    public CombatantStore() {
+        this(64);
+    }
+
+    public CombatantStore(int initialCapacity) {
+        handles = new Combatant[initialCapacity];
+        x = new double[initialCapacity];
+        y = new double[initialCapacity];
+        hp = new int[initialCapacity];
+        atk = new int[initialCapacity];
+        def = new int[initialCapacity];
+        cooldown = new int[initialCapacity];
+        direction = new byte[initialCapacity];
+        type = new byte[initialCapacity];
+        cellKeys = new long[initialCapacity];
+        nextInCell = new int[initialCapacity];
+        previousInCell = new int[initialCapacity];
+    }
+
+    //Binds Combatant combatant to a new slot at the end of the store, a Combatant can only be in one store at a time
+    @Override
+    public boolean add(Combatant combatant) {
+        if (combatant.store != null) {
+            throw new IllegalStateException(combatant.getId() + " is already stored");
+        }
+        if (size == handles.length) {
+            grow();
+        }
+        final int slot = size++;
+        handles[slot] = combatant;
+        x[slot] = combatant.coords.getxCoord();
+        y[slot] = combatant.coords.getyCoord();
+        hp[slot] = combatant.hp;
+        atk[slot] = combatant.atk;
+        def[slot] = combatant.def;
+        cooldown[slot] = combatant.attackCooldownTicker;
+        direction[slot] = (byte) combatant.direction.ordinal();
+        type[slot] = typeOf(combatant.id);
+        link(slot);
+        combatant.store = this;
+        combatant.slot = slot;
+        modCount++;
+        return true;
+    }
+
+    //Copies the state of the Combatant in slot back into it and moves the last Combatant into the slot
+    @Override
+    public Combatant remove(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " of " + size);
+        }
+        Combatant removed = handles[slot];
+        removed.coords = new Coordinates(x[slot], y[slot]);
+        removed.hp = hp[slot];
+        removed.atk = atk[slot];
+        removed.def = def[slot];
+        removed.attackCooldownTicker = cooldown[slot];
+        removed.direction = directions[direction[slot]];
+        removed.store = null;
+        removed.slot = -1;
+
+        unlink(slot);
+        final int last = --size;
+        if (slot != last) {
+            unlink(last);
+            handles[slot] = handles[last];
+            x[slot] = x[last];
+            y[slot] = y[last];
+            hp[slot] = hp[last];
+            atk[slot] = atk[last];
+            def[slot] = def[last];
+            cooldown[slot] = cooldown[last];
+            direction[slot] = direction[last];
+            type[slot] = type[last];
+            handles[slot].slot = slot;
+            link(slot);
+        }
+        handles[last] = null;
+        modCount++;
+        return removed;
+    }
+
+    //Only looks at the slot Combatant o is bound to, Combatants of other stores are never found
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Combatant) || ((Combatant) o).store != this) {
+            return false;
+        }
+        remove(((Combatant) o).slot);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Combatant && ((Combatant) o).store == this;
+    }
+
+    @Override
+    public Combatant get(int slot) {
+        if (slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " of " + size);
+        }
+        return handles[slot];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        while (size > 0) {
+            remove(size - 1);
+        }
+    }
+
+    double getX(int slot) {
+        return x[slot];
+    }
+
+    double getY(int slot) {
+        return y[slot];
+    }
+
+    void translate(int slot, double xDist, double yDist) {
+        x[slot] += xDist;
+        y[slot] += yDist;
+        if (cellKeyOf(x[slot], y[slot]) != cellKeys[slot]) {
+            unlink(slot);
+            link(slot);
+        }
+    }
+
+    int getHp(int slot) {
+        return hp[slot];
+    }
+
+    void addHp(int slot, int amount) {
+        hp[slot] += amount;
+    }
+
+    int getAtk(int slot) {
+        return atk[slot];
+    }
+
+    int getDef(int slot) {
+        return def[slot];
+    }
+
+    int getCooldown(int slot) {
+        return cooldown[slot];
+    }
+
+    void setCooldown(int slot, int ticks) {
+        cooldown[slot] = ticks;
+    }
+
+    Movable.Direction getDirection(int slot) {
+        return directions[direction[slot]];
+    }
+
+    void setDirection(int slot, Movable.Direction dir) {
+        direction[slot] = (byte) dir.ordinal();
+    }
+
+    String getTypeId(int slot) {
+        return typeIds.get(type[slot]);
+    }
+
+    //First slot in the cell at int cellX, int cellY, -1 if the cell is empty
+    int firstInCell(int cellX, int cellY) {
+        return cellHeads.getOrDefault(Coordinates.pack(cellX, cellY), -1);
+    }
+
+    //Next slot in the same cell as int slot, -1 after the last one
+    int nextInCell(int slot) {
+        return nextInCell[slot];
+    }
+
+    static int cellOf(double coord) {
+        return (int) Math.floor(coord / cellSize);
+    }
+
+    private static long cellKeyOf(double x, double y) {
+        return Coordinates.pack(cellOf(x), cellOf(y));
+    }
+
+    //Puts int slot at the head of the list of the cell it lies in
+    private void link(int slot) {
+        final long key = cellKeyOf(x[slot], y[slot]);
+        final int head = cellHeads.getOrDefault(key, -1);
+        cellKeys[slot] = key;
+        previousInCell[slot] = -1;
+        nextInCell[slot] = head;
+        if (head >= 0) {
+            previousInCell[head] = slot;
+        }
+        cellHeads.put(key, slot);
+    }
+
+    private void unlink(int slot) {
+        final int previous = previousInCell[slot];
+        final int next = nextInCell[slot];
+        if (next >= 0) {
+            previousInCell[next] = previous;
+        }
+        if (previous >= 0) {
+            nextInCell[previous] = next;
+        } else if (next >= 0) {
+            cellHeads.put(cellKeys[slot], next);
+        } else {
+            cellHeads.remove(cellKeys[slot]);
+        }
+    }
+
+    private byte typeOf(String id) {
+        int index = typeIds.indexOf(id);
+        if (index < 0) {
+            if (typeIds.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Too many combatant types to store " + id);
+            }
+            index = typeIds.size();
+            typeIds.add(id);
+        }
+        return (byte) index;
+    }
+
+    private void grow() {
+        final int capacity = Math.max(16, handles.length * 2);
+        handles = Arrays.copyOf(handles, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        atk = Arrays.copyOf(atk, capacity);
+        def = Arrays.copyOf(def, capacity);
+        cooldown = Arrays.copyOf(cooldown, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        type = Arrays.copyOf(type, capacity);
+        cellKeys = Arrays.copyOf(cellKeys, capacity);
+        nextInCell = Arrays.copyOf(nextInCell, capacity);
+        previousInCell = Arrays.copyOf(previousInCell, capacity);
+    }
+}
@@ -1,21 +1,21 @@
 package org.openjfx.model;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class Coordinates {
-    double xCoord;
-    double yCoord;
+//Immutable position in the world, Coordinates with the same x and y are equal
+public final class Coordinates {
+    final double xCoord;
+    final double yCoord;
 
     public Coordinates(double xCoord, double yCoord){
         this.xCoord = xCoord;
         this.yCoord = yCoord;
     }
 
-    static Coordinates generateRandomCoordinates(int spawnAreaSide){
-        Random rand = new Random();
-        rand = new Random();
-        double randX = rand.nextInt(spawnAreaSide) - spawnAreaSide /2;
-        double randY = rand.nextInt(spawnAreaSide) - spawnAreaSide /2;
+    //Returns random whole-tile Coordinates inside the square of int areaSide tiles starting at minX, minY
+    static Coordinates generateRandomCoordinates(SplittableRandom rand, int minX, int minY, int areaSide){
+        double randX = minX + rand.nextInt(areaSide);
+        double randY = minY + rand.nextInt(areaSide);
         return new Coordinates(randX, randY);
     }
 
@@ -26,4 +26,48 @@ public class Coordinates {
     public double getyCoord() {
         return yCoord;
     }
+
+    public Coordinates translate(double xDist, double yDist) {
+        return new Coordinates(xCoord + xDist, yCoord + yDist);
+    }
+
+    //Packs the tile these Coordinates lie on into a long, usable as a primitive map key
+    public long toTileKey() {
+        return pack((int) Math.floor(xCoord), (int) Math.floor(yCoord));
+    }
+
+    //Packs two ints into one long, x in the high 32 bits and y in the low 32 bits
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackY(long key) {
+        return (int) key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Coordinates)) {
+            return false;
+        }
+        Coordinates other = (Coordinates) o;
+        return Double.compare(xCoord, other.xCoord) == 0 && Double.compare(yCoord, other.yCoord) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(xCoord) + Double.hashCode(yCoord);
+    }
+
+    @Override
+    public String toString() {
+        return "(" + xCoord + ", " + yCoord + ")";
+    }
 }
@@ -7,32 +7,11 @@ public class Enemy extends Combatant {
         this.moveSpeed = 0.1;
     }
 
-    public int getHp() {
-        return hp;
-    }
-
-    public int getAtk() {
-        return atk;
-    }
-
-    public double getAtkRange() { return atkRange; }
-
-    public void decHp(int decAmount) {
-
-        hp = hp - decAmount;
-    }
-
-    public void incHp(int incAmount){
-
-        hp = hp + incAmount;
-
-    }
-
     public boolean canAttack(){
-        if (attackCooldownTicker > 20){
+        if (getAttackCooldownTicker() > 20){
             return true;
         }
-        attackCooldownTicker++;
+        incAttackCooldownTicker();
         return false;
 
     }
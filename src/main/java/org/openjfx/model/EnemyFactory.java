@@ -2,7 +2,7 @@ package org.openjfx.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class EnemyFactory {
     private final List<String> enemyTypes = new ArrayList<>();
@@ -11,10 +11,12 @@ public class EnemyFactory {
         enemyTypes.add("Goblin");
         enemyTypes.add("Rat");
     }
-    public Combatant generateEnemy(int spawnAreaSide) {
-        Random rand = new Random();
-        Coordinates coordinates = Coordinates.generateRandomCoordinates(spawnAreaSide);
+    //The enemy gets its own random seed from SplittableRandom rand, see Combatant.getRandomSeed
+    public Combatant generateEnemy(SplittableRandom rand, int minX, int minY, int areaSide) {
+        Coordinates coordinates = Coordinates.generateRandomCoordinates(rand, minX, minY, areaSide);
         int randIndex = rand.nextInt(enemyTypes.size());
-        return new Enemy(enemyTypes.get(randIndex),coordinates.getxCoord(),coordinates.getyCoord(),100,30,2, 0);
+        Combatant enemy = new Enemy(enemyTypes.get(randIndex),coordinates.getxCoord(),coordinates.getyCoord(),100,30,2, 0);
+        enemy.randomSeed = rand.nextLong();
+        return enemy;
     }
 }
@@ -0,0 +1,117 @@
+package org.openjfx.model;
+
+import org.openjfx.model.tile.ReadOnlyTileGrid;
+import org.openjfx.model.tile.TileType;
+
+import java.util.Arrays;
+
+/*Breadth first distance map from one target tile over the tiles of a ReadOnlyTileGrid, moving between
+  tiles that share a side and are not solid. Every reached tile also keeps the direction of its neighbour
+  one step closer to the target, so any number of chasers find their next step with one lookup.
+  The map is only recomputed when the target tile or the area of the grid changes*/
+
+class FlowField {
+    private static final Movable.Direction[] directions = Movable.Direction.values();
+    private static final byte none = -1;
+
+    private int columns;
+    private int rows;
+    private int minX;
+    private int minY;
+    private int targetX;
+    private int targetY;
+    private boolean isComputed = false;
+
+    //Per grid cell, row by row: steps to the target or -1, and the ordinal of the direction to move in or none
+    private int[] distances = new int[0];
+    private byte[] steps = new byte[0];
+    private int[] queue = new int[0];
+
+    /*Makes the field lead to the tile at int targetX, int targetY of ReadOnlyTileGrid grid.
+      Returns false without doing anything if the field already leads there over the same area*/
+
+    boolean update(ReadOnlyTileGrid grid, int targetX, int targetY) {
+        if (isComputed && targetX == this.targetX && targetY == this.targetY && grid.getMinX() == minX
+                && grid.getMinY() == minY && grid.getColumns() == columns && grid.getRows() == rows) {
+            return false;
+        }
+        this.targetX = targetX;
+        this.targetY = targetY;
+        minX = grid.getMinX();
+        minY = grid.getMinY();
+        columns = grid.getColumns();
+        rows = grid.getRows();
+        compute(grid);
+        isComputed = true;
+        return true;
+    }
+
+    //Steps from the tile at int x, int y to the target, -1 if the target can not be reached or the tile is outside the field
+    int distanceAt(int x, int y) {
+        final int column = x - minX;
+        final int row = y - minY;
+        if (!isComputed || column < 0 || column >= columns || row < 0 || row >= rows) {
+            return -1;
+        }
+        return distances[row * columns + column];
+    }
+
+    //Direction to move in from the tile at int x, int y, null on the target and where distanceAt is -1
+    Movable.Direction directionAt(int x, int y) {
+        if (distanceAt(x, y) <= 0) {
+            return null;
+        }
+        return directions[steps[(y - minY) * columns + x - minX]];
+    }
+
+    private void compute(ReadOnlyTileGrid grid) {
+        final int cells = columns * rows;
+        if (distances.length < cells) {
+            distances = new int[cells];
+            steps = new byte[cells];
+            queue = new int[cells];
+        }
+        Arrays.fill(distances, 0, cells, -1);
+        Arrays.fill(steps, 0, cells, none);
+
+        final int targetColumn = targetX - minX;
+        final int targetRow = targetY - minY;
+        if (targetColumn < 0 || targetColumn >= columns || targetRow < 0 || targetRow >= rows) {
+            return;
+        }
+        int head = 0;
+        int tail = 0;
+        distances[targetRow * columns + targetColumn] = 0;
+        queue[tail++] = targetRow * columns + targetColumn;
+        while (head < tail) {
+            final int cell = queue[head++];
+            final int column = cell % columns;
+            final int row = cell / columns;
+            final int next = distances[cell] + 1;
+            // A neighbour reached from this cell moves back towards it, so a cell to the left moves RIGHT
+            if (column > 0) {
+                tail = visit(grid, column - 1, row, next, Movable.Direction.RIGHT, tail);
+            }
+            if (column < columns - 1) {
+                tail = visit(grid, column + 1, row, next, Movable.Direction.LEFT, tail);
+            }
+            if (row > 0) {
+                tail = visit(grid, column, row - 1, next, Movable.Direction.DOWN, tail);
+            }
+            if (row < rows - 1) {
+                tail = visit(grid, column, row + 1, next, Movable.Direction.UP, tail);
+            }
+        }
+    }
+
+    private int visit(ReadOnlyTileGrid grid, int column, int row, int distance, Movable.Direction step, int tail) {
+        final int cell = row * columns + column;
+        if (distances[cell] >= 0 || TileType.byId(grid.getTypeId(column, row)).isSolid()) {
+            return tail;
+        }
+        distances[cell] = distance;
+        steps[cell] = (byte) step.ordinal();
+        queue[tail] = cell;
+        return tail + 1;
+    }
+}
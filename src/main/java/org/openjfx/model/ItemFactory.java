@@ -1,25 +1,28 @@
 package org.openjfx.model;
 
-import javafx.util.Pair;
-
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 public class ItemFactory {
-    private final List<Pair<String, Integer>> weapontypes = new ArrayList<>();
-    private final List<Pair<String, Integer>> armortypes = new ArrayList<>();
+    private final List<Map.Entry<String, Integer>> weapontypes = new ArrayList<>();
+    private final List<Map.Entry<String, Integer>> armortypes = new ArrayList<>();
     private static ItemFactory instance;
 
     private ItemFactory(){
-        weapontypes.add(new Pair<>("Sword", 20));
-        weapontypes.add(new Pair<>("Axe", 30));
+        weapontypes.add(new AbstractMap.SimpleImmutableEntry<>("Sword", 20));
+        weapontypes.add(new AbstractMap.SimpleImmutableEntry<>("Axe", 30));
 
-        armortypes.add(new Pair<>("Armor", 10));
+        armortypes.add(new AbstractMap.SimpleImmutableEntry<>("Armor", 10));
     }
 
     public Item getRandomItem(){
-        Random rand = new Random();
+        return getRandomItem(new SplittableRandom());
+    }
+
+    public Item getRandomItem(SplittableRandom rand){
         int randIndex;
         String id;
         int bonusStat;
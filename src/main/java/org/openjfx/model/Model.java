@@ -3,6 +3,18 @@ package org.openjfx.model;
 import org.openjfx.model.noise.NoiseGenerator;
 
 import org.openjfx.utils.event.Event;
+import org.openjfx.utils.logging.GameLog;
+import org.openjfx.utils.profiling.TickProfiler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Model {
 
@@ -10,6 +22,18 @@ public class Model {
 
     public Event<EventMessage> hasUpdateEvent;
 
+    //Commands posted from other threads, they are run on the simulation thread at the start of the next tick
+    private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
+    private volatile WorldSnapshot latestSnapshot;
+    private long updateCount = 0;
+
+    //Saves are written one after the other on a background thread so the simulation does not wait for the disk
+    private static final ExecutorService saveWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "world-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public Model() {
         this(null);
     }
@@ -19,44 +43,121 @@ public class Model {
         hasUpdateEvent = new Event<>();
     }
 
+    /*Delivers UPDATE messages on Executor updateExecutor instead of the simulation thread,
+      updates published while an earlier one is still waiting are collapsed into the newest snapshot*/
+
+    public Model(NoiseGenerator noiseGenerator, Executor updateExecutor) {
+        world = new World(noiseGenerator);
+        hasUpdateEvent = new Event<>(updateExecutor, true);
+    }
+
+    public Model(NoiseGenerator noiseGenerator, long seed) {
+        world = new World(noiseGenerator, seed);
+        hasUpdateEvent = new Event<>();
+    }
+
+    public Model(NoiseGenerator noiseGenerator, long seed, Executor updateExecutor) {
+        this(new World(noiseGenerator, seed), updateExecutor);
+    }
+
+    //Executor updateExecutor may be null for synchronous updates
+    Model(World world, Executor updateExecutor) {
+        this.world = world;
+        hasUpdateEvent = new Event<>(updateExecutor, updateExecutor != null);
+    }
+
+    /*Continues a world saved with save() and read with WorldSave.read(), NoiseGenerator noiseGenerator
+      has to generate the same terrain as the noise the world was saved with*/
+
+    public static Model load(WorldSave save, NoiseGenerator noiseGenerator, Executor updateExecutor) {
+        return new Model(save.toWorld(noiseGenerator), updateExecutor);
+    }
+
+    /*Saves the world to Path path. The chunks in memory are copied right away, so this has to be called on
+      the thread ticking the Model, the chunks stored on disk are read and the copy is written in the background.
+      The returned future completes when the save is on disk*/
+
+    public CompletableFuture<Void> save(Path path) {
+        final WorldSave save = WorldSave.capture(world);
+        return CompletableFuture.runAsync(() -> {
+            try {
+                save.write(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, saveWriter);
+    }
+
+    public long getSeed() {
+        return world.getSeed();
+    }
+
+    //See World.enableChunkPersistence, has to be called before the Model is ticked on another thread
+    public void enableChunkPersistence(Path directory, int maxResidentChunks) throws IOException {
+        world.enableChunkPersistence(directory, maxResidentChunks);
+    }
+
     public void movePlayerUp() {
-        System.out.println("Up");
         world.player.setDirection(Movable.Direction.UP);
         if(world.isPathFree(world.player, world.getActiveEnemies())) {
             world.player.move(Movable.Direction.UP);
             world.updateWorldGrid();
         }
+        logPlayerMovement();
     }
 
     public void movePlayerDown() {
-        System.out.println("Down");
         world.player.setDirection(Movable.Direction.DOWN);
         if(world.isPathFree(world.player, world.getActiveEnemies())) {
             world.player.move(Movable.Direction.DOWN);
             world.updateWorldGrid();
         }
+        logPlayerMovement();
     }
 
     public void movePlayerRight() {
-        System.out.println("Right");
         world.player.setDirection(Movable.Direction.RIGHT);
         if(world.isPathFree(world.player, world.getActiveEnemies())) {
             world.player.move(Movable.Direction.RIGHT);
             world.updateWorldGrid();
         }
+        logPlayerMovement();
     }
 
     public void movePlayerLeft() {
-        System.out.println("Left");
         world.player.setDirection(Movable.Direction.LEFT);
         if(world.isPathFree(world.player, world.getActiveEnemies())) {
             world.player.move(Movable.Direction.LEFT);
             world.updateWorldGrid();
         }
+        logPlayerMovement();
     }
 
+    private void logPlayerMovement() {
+        world.getLog().movement(GameLog.Level.DEBUG, world.player.getId(),
+                world.player.getXcoord(), world.player.getYcoord(), world.player.getDirection().name());
+    }
+
+    public GameLog getLog() {
+        return world.getLog();
+    }
+
+    /*Publishes a new WorldSnapshot of the world and dispatches it with EventMessage.UPDATE,
+    listeners get the snapshot and never the live World*/
+
     public void modelHasBeenUpdated() {
-        hasUpdateEvent.dispatch(EventMessage.UPDATE, world);
+        latestSnapshot = new WorldSnapshot(world, ++updateCount);
+        hasUpdateEvent.dispatch(EventMessage.UPDATE, latestSnapshot);
+    }
+
+    //Returns the most recently published snapshot, can be called from any thread
+    public WorldSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+
+    //Can be called from any thread, the command is run by the thread calling tick()
+    public void post(Runnable command) {
+        pendingCommands.add(command);
     }
 
     public void playerAttacks() {
@@ -95,6 +196,27 @@ public class Model {
         world.moveMobs();
     }
 
+    //Advances the simulation by one tick, posted commands are run, mobs move and attack and a snapshot is published
+    public void tick() {
+        final TickProfiler profiler = getProfiler();
+        final long tickStart = profiler.start();
+        Runnable command;
+        while ((command = pendingCommands.poll()) != null) {
+            command.run();
+        }
+        moveMobsInWorld();
+        final long attackStart = profiler.start();
+        mobsAttack();
+        profiler.stop(TickProfiler.Phase.MOBS_ATTACK, attackStart);
+        modelHasBeenUpdated();
+        profiler.stop(TickProfiler.Phase.TICK, tickStart);
+    }
+
+    //Phase timings of the simulation, the View adds its own rendering time to the same profiler
+    public TickProfiler getProfiler() {
+        return world.getProfiler();
+    }
+
 
     public void mobsAttack() {
         for (Combatant enemy : world.getActiveEnemies()) {
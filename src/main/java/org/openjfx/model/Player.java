@@ -19,6 +19,11 @@ public class Player extends Combatant {
         itemBonus(inventory[selectedItem -1]);
     }
 
+    //Used when loading a saved game, the bonus of the item is already part of the saved stats
+    void restoreSelectedItem(int selectedItem) {
+        this.selectedItem = selectedItem;
+    }
+
     public Player(String id, double xCoord, double yCoord, int hitpoints, int attack, float atkRange, int defense) {
         super(id, xCoord, yCoord, hitpoints, attack, atkRange, defense);
         this.moveSpeed = 1.0/3.0;
@@ -88,10 +93,10 @@ public class Player extends Combatant {
     }
 
     public boolean canAttack(){
-        if (attackCooldownTicker > 0){
+        if (getAttackCooldownTicker() > 0){
             return true;
         }
-        attackCooldownTicker++;
+        incAttackCooldownTicker();
         return false;
     }
 
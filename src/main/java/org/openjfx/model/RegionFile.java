@@ -0,0 +1,88 @@
+package org.openjfx.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*File holding the stored data of a square region of regionSide x regionSide chunks.
+  The file starts with a header of one entry per chunk, an int offset and an int length of the chunk
+  data, a length of 0 means the chunk is not stored. Chunk data is appended behind the header, the space
+  of data that is overwritten or removed is not reused*/
+
+class RegionFile implements Closeable {
+    static final int regionSide = 32;
+    private static final int entryBytes = 8;
+    private static final int headerBytes = regionSide * regionSide * entryBytes;
+
+    private final FileChannel channel;
+    private final ByteBuffer entry = ByteBuffer.allocate(entryBytes);
+
+    RegionFile(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < headerBytes) {
+            channel.write(ByteBuffer.allocate(headerBytes), 0);
+        }
+    }
+
+    //Returns the data stored for the chunk at int localX, int localY of the region, or null
+    byte[] read(int localX, int localY) throws IOException {
+        readEntry(localX, localY);
+        final int offset = entry.getInt(0);
+        final int length = entry.getInt(4);
+        if (length == 0) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.allocate(length);
+        while (data.hasRemaining()) {
+            if (channel.read(data, offset + data.position()) < 0) {
+                throw new IOException("Region file ends inside chunk " + localX + ", " + localY);
+            }
+        }
+        return data.array();
+    }
+
+    void write(int localX, int localY, byte[] data) throws IOException {
+        final long offset = channel.size();
+        if (offset + data.length > Integer.MAX_VALUE) {
+            throw new IOException("Region file is full");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        writeEntry(localX, localY, (int) offset, data.length);
+    }
+
+    void remove(int localX, int localY) throws IOException {
+        writeEntry(localX, localY, 0, 0);
+    }
+
+    private void readEntry(int localX, int localY) throws IOException {
+        entry.clear();
+        while (entry.hasRemaining()) {
+            if (channel.read(entry, entryPosition(localX, localY) + entry.position()) < 0) {
+                throw new IOException("Region file header is cut off");
+            }
+        }
+    }
+
+    private void writeEntry(int localX, int localY, int offset, int length) throws IOException {
+        entry.clear();
+        entry.putInt(offset).putInt(length).flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry, entryPosition(localX, localY) + entry.position());
+        }
+    }
+
+    private static long entryPosition(int localX, int localY) {
+        return (long) (localY * regionSide + localX) * entryBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,124 @@
+package org.openjfx.model;
+
+import org.openjfx.utils.collection.LongHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*Uniform bucket grid of entities keyed by integer cell, used to find entities close to a point
+  without looking at every stored entity. Cells are keyed by their packed cell position, entities are
+  bucketed by their coordinates when added and are expected to keep them while stored in the grid*/
+
+public class SpatialGrid<T extends Entity> {
+    private final int cellSize;
+    private final LongHashMap<List<T>> cells = new LongHashMap<>();
+    private int size = 0;
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public void add(T entity) {
+        long key = cellKey(cellOf(entity.getXcoord()), cellOf(entity.getYcoord()));
+        List<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(entity);
+        size++;
+    }
+
+    public boolean remove(T entity) {
+        long key = cellKey(cellOf(entity.getXcoord()), cellOf(entity.getYcoord()));
+        List<T> cell = cells.get(key);
+        if (cell == null || !cell.remove(entity)) {
+            return false;
+        }
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+        size--;
+        return true;
+    }
+
+    //Returns an entity stored at exactly Coordinates coords, or null, only the cell of coords is looked at
+    public T getAt(Coordinates coords) {
+        List<T> cell = cells.get(cellKey(cellOf(coords.getxCoord()), cellOf(coords.getyCoord())));
+        if (cell != null) {
+            for (T entity : cell) {
+                if (coords.equals(entity.getCoords())) {
+                    return entity;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*Removes every entity within double range of (x, y) from the grid and adds it to out.
+      Only the cells overlapping the square around the range are visited*/
+
+    public void removeWithinDistance(double x, double y, double range, List<? super T> out) {
+        final double rangeSquared = range * range;
+        final int minCellX = cellOf(x - range);
+        final int maxCellX = cellOf(x + range);
+        final int minCellY = cellOf(y - range);
+        final int maxCellY = cellOf(y + range);
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                long key = cellKey(cellX, cellY);
+                List<T> cell = cells.get(key);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = cell.size() - 1; i >= 0; i--) {
+                    T entity = cell.get(i);
+                    double xDist = entity.getXcoord() - x;
+                    double yDist = entity.getYcoord() - y;
+                    if ((xDist * xDist) + (yDist * yDist) <= rangeSquared) {
+                        out.add(entity);
+                        int last = cell.size() - 1;
+                        cell.set(i, cell.get(last));
+                        cell.remove(last);
+                        size--;
+                    }
+                }
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    //Removes every entity of the cell at int cellX, int cellY from the grid and adds it to out
+    public void removeCell(int cellX, int cellY, List<? super T> out) {
+        List<T> cell = cells.remove(cellKey(cellX, cellY));
+        if (cell != null) {
+            out.addAll(cell);
+            size -= cell.size();
+        }
+    }
+
+    //Calls action for every stored entity, the grid must not be changed by action
+    public void forEach(Consumer<? super T> action) {
+        cells.forEach((key, cell) -> cell.forEach(action));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    int cellOf(double coord) {
+        return (int) Math.floor(coord / cellSize);
+    }
+
+    static long cellKey(int cellX, int cellY) {
+        return Coordinates.pack(cellX, cellY);
+    }
+}
@@ -2,51 +2,114 @@ package org.openjfx.model;
 
 import org.openjfx.model.noise.DefaultNoiseGenerator;
 import org.openjfx.model.noise.NoiseGenerator;
-import org.openjfx.model.tile.Tile;
+import org.openjfx.model.path.HierarchicalPathfinder;
+import org.openjfx.model.path.PathFollower;
+import org.openjfx.model.tile.ReadOnlyTileGrid;
 import org.openjfx.model.tile.TileFactory;
+import org.openjfx.model.tile.TileGrid;
+import org.openjfx.utils.logging.GameLog;
+import org.openjfx.utils.profiling.TickProfiler;
+import org.openjfx.utils.random.RandomStreams;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public class World {
     private TileFactory tileFactory;
-    private EnemyFactory enemyFactory;
-    private ChestFactory chestFactory;
-    LinkedList<LinkedList<Tile>> worldGrid;
+    private ChunkSpawner chunkSpawner;
+    private final long seed;
+    //Ids of the random streams derived from seed, every random part of the world draws from its own stream
+    private static final long noiseStream = 1;
+    private static final long spawnStream = 2;
+    private static final long movementStream = 3;
+    private final long movementSeed;
+    //Number of times moveMobs has run, wandering enemies draw their roll from it
+    private long tick = 0;
+    TileGrid worldGrid;
     double worldVerticalSideLength;
     double worldHorizontalSideLength;
 
     private final double enemyDetectDistance = 7;
     private final double activeDistance = 22;
-    private final int spawnAreaSide = 5000;
-    final private List<Combatant> activeEnemies = new ArrayList<>();
-    final private Map<Coordinates, Combatant> inactiveEnemies = new HashMap<>();
+    //Off screen enemies within this distance of Player are updated every second tick, the ones further away every fourth
+    private final double halfRateDistance = 16;
+    /*isEntityBlocking compares with the int division 1/2, which is 0, so no entity ever blocks.
+      The broadphase of isPathFree still looks half a tile around the mover, so it stays right if that becomes 0.5*/
+    private static final double blockingRange = 0.5;
+    private final int spawnAreaSide;
+    private final int enemyCount;
+    private final int chestCount;
+    private final int chunkSize = 16;
+    //Active enemies keep their state in the arrays of the store, removing an enemy changes the order of the others
+    final private CombatantStore activeEnemies = new CombatantStore();
+    final private SpatialGrid<Combatant> inactiveEnemies = new SpatialGrid<>(chunkSize);
     final private List<Chest> activeChests = new ArrayList<>();
-    final private Map<Coordinates, Chest> inactiveChests = new HashMap<>();
+    final private SpatialGrid<Chest> inactiveChests = new SpatialGrid<>(chunkSize);
     final private List<Combatant> players = new ArrayList<>();
     public Player player;
+    private final TickProfiler profiler = new TickProfiler();
+    private final GameLog log = new GameLog();
+    private ChunkPersistence chunkPersistence;
+
+    //Below this many active enemies their moves are planned on the calling thread, forking costs more than it saves
+    private int parallelMoveThreshold = 256;
+    private final ForkJoinPool movePool = ForkJoinPool.commonPool();
+    //Per enemy plan filled in by planMoves, indexed like activeEnemies
+    private Movable.Direction[] firstMoves = new Movable.Direction[0];
+    private Movable.Direction[] secondMoves = new Movable.Direction[0];
+    private Movable.Direction[] plannedDirections = new Movable.Direction[0];
+    //Slots of the defenders combatantAttacks collects from the broadphase cells, reused by every attack
+    private int[] targetSlots = new int[16];
+    //Leads chasing enemies around solid tiles to the tile Player stands on
+    private final FlowField flowField = new FlowField();
+    //Paths for chasing enemies the flow field can not lead to Player, found for the Player tile in longPathTarget
+    private final HierarchicalPathfinder pathfinder;
+    private final Map<Combatant, PathFollower> longPaths = new HashMap<>();
+    private long longPathTarget;
+    /*Terrain of the whole active area, enemies on a path of pathfinder check their moves against it as their path
+      can leave worldGrid. Made on first use and scrolled with Player before the moves are planned*/
+    private TileGrid pathArea;
 
     public World() {
         this(null);
     }
 
-    /*Initiates int worldHorizontalSideLength rows for the grid matrix,
-    then fills every row with int worldVerticalSideLength Tile Objects,
+    public World(NoiseGenerator noiseGenerator) {
+        this(noiseGenerator, RandomStreams.randomSeed());
+    }
+
+    public World(NoiseGenerator noiseGenerator, long seed) {
+        this(noiseGenerator, seed, 5000, 100000, 100000);
+    }
+
+    /*Initiates the worldGrid with int worldHorizontalSideLength columns
+    of int worldVerticalSideLength tiles,
     the center of worldGrid matrix is set to coordinates 0,0
 
-    Initiates inactiveEnemies and inactiveChests with a large pool of enemies/chests
-     to be loaded in when their respective Coordinate coords come into activeDistance of Player
+    No enemies or chests are created here, the chunkSpawner populates inactiveEnemies and inactiveChests
+     chunk by chunk from long seed when the chunks come into activeDistance of Player.
+     Without a NoiseGenerator the terrain is generated from long seed too, see noiseSeedOf
+     int enemyCount and int chestCount are spread over the square spawn area of int spawnAreaSide tiles centered on 0,0
     */
 
-    public World(NoiseGenerator noiseGenerator) {
+    public World(NoiseGenerator noiseGenerator, long seed, int spawnAreaSide, int enemyCount, int chestCount) {
         if (noiseGenerator != null) {
             tileFactory = new TileFactory(noiseGenerator);
         } else {
-            tileFactory = new TileFactory(new DefaultNoiseGenerator());
+            tileFactory = new TileFactory(new DefaultNoiseGenerator(noiseSeedOf(seed)));
         }
-        chestFactory = new ChestFactory();
-        enemyFactory = new EnemyFactory();
-
-
+        pathfinder = new HierarchicalPathfinder(tileFactory, chunkSize, 256, 2);
+        this.seed = seed;
+        this.movementSeed = RandomStreams.derive(seed, movementStream);
+        this.spawnAreaSide = spawnAreaSide;
+        this.enemyCount = enemyCount;
+        this.chestCount = chestCount;
+        chunkSpawner = new ChunkSpawner(RandomStreams.derive(seed, spawnStream), chunkSize, spawnAreaSide, enemyCount, chestCount);
 
         player = new Player("Player", 0.05, 0.05, 100, 20, 2, 0);
         players.add(player);
@@ -54,63 +117,96 @@ public class World {
         this.worldHorizontalSideLength = 23;
         this.worldVerticalSideLength = 15;
 
-        for (int i = 0; i < 100000; i++) {
-            Combatant enemy = enemyFactory.generateEnemy(spawnAreaSide);
-            inactiveEnemies.put((enemy.getCoords()), enemy);
-        }
+        worldGrid = new TileGrid(tileFactory, (int) worldHorizontalSideLength, (int) worldVerticalSideLength,
+                (int) -((worldHorizontalSideLength - 1) / 2), (int) -((worldVerticalSideLength - 1) / 2));
+    }
 
-        for (int i = 0; i < 100000; i++) {
-            Chest chest = chestFactory.generateChest(spawnAreaSide);
-            inactiveChests.put((chest.getCoords()), chest);
-        }
 
-        double xCoord = 0 - ((worldHorizontalSideLength - 1) / 2) - 1;
-        double yCoord;
+    /*Returns the defenders of List<Combatant> defenders hit by Combatant attacker. Defenders in sight and within
+      attack range are tried in list order, attacker.canAttack() is asked once for each of them and a hit puts
+      attacker on cooldown. For the active enemies only the broadphase cells within attack range are looked at.
+      Nothing is allocated unless a defender is hit*/
 
-        worldGrid = new LinkedList<>();
-        for (int i = 0; i < worldHorizontalSideLength; i++) {
-            LinkedList<Tile> worldRow = new LinkedList<>();
-            xCoord++;
-            yCoord = (0 - (worldVerticalSideLength - 1) / 2);
-            for (int j = 0; j < worldVerticalSideLength + 1; j++) {
-                worldRow.add(tileFactory.generateTile(xCoord, yCoord));
-                yCoord++;
+    public List<Combatant> combatantAttacks(Combatant attacker, List<Combatant> defenders) {
+        final double x = attacker.getXcoord();
+        final double y = attacker.getYcoord();
+        final Movable.Direction direction = attacker.getDirection();
+        final double range = attacker.getAtkRange();
+        List<Combatant> combatantsHit = null;
+        if (defenders == activeEnemies) {
+            // Slots are in list order, so the defenders are tried from the lowest slot up
+            final int targets = collectTargets(x, y, direction, range);
+            Arrays.sort(targetSlots, 0, targets);
+            for (int t = 0; t < targets; t++) {
+                if (attacker.canAttack()) {
+                    attacker.setAttackOnCooldown();
+                    combatantsHit = addHit(combatantsHit, activeEnemies.get(targetSlots[t]));
+                }
+            }
+        } else {
+            for (Combatant defender : defenders) {
+                if (inSight(x, y, direction, defender) && isWithinRange(x, y, defender.getXcoord(), defender.getYcoord(), range)
+                        && attacker.canAttack()) {
+                    attacker.setAttackOnCooldown();
+                    combatantsHit = addHit(combatantsHit, defender);
+                }
             }
-            worldGrid.add(worldRow);
         }
+        return combatantsHit == null ? Collections.emptyList() : combatantsHit;
     }
 
-
-    public List<Combatant> combatantAttacks(Combatant attacker, List<Combatant> defenders) {
-        List<Combatant> combatantsHit = new ArrayList<>();
-        for (Combatant defender : defenders) {
-            if (inSight(attacker, defender) && isEntityWithinDistance(defender, attacker, attacker.getAtkRange()) && attacker.canAttack()) {
-                attacker.setAttackOnCooldown();
-                combatantsHit.add(defender);
+    /*Puts the slots of the active enemies in sight of and within double range of x, y into targetSlots,
+      in cell order, and returns how many there are. targetSlots only grows, so this allocates nothing once it is big enough*/
+
+    private int collectTargets(double x, double y, Movable.Direction direction, double range) {
+        int targets = 0;
+        for (int cellX = CombatantStore.cellOf(x - range); cellX <= CombatantStore.cellOf(x + range); cellX++) {
+            for (int cellY = CombatantStore.cellOf(y - range); cellY <= CombatantStore.cellOf(y + range); cellY++) {
+                for (int slot = activeEnemies.firstInCell(cellX, cellY); slot >= 0; slot = activeEnemies.nextInCell(slot)) {
+                    if (inSight(x, y, direction, activeEnemies.get(slot))
+                            && isWithinRange(x, y, activeEnemies.getX(slot), activeEnemies.getY(slot), range)) {
+                        if (targets == targetSlots.length) {
+                            targetSlots = Arrays.copyOf(targetSlots, targets * 2);
+                        }
+                        targetSlots[targets++] = slot;
+                    }
+                }
             }
         }
+        return targets;
+    }
+
+    private static List<Combatant> addHit(List<Combatant> combatantsHit, Combatant hit) {
+        if (combatantsHit == null) {
+            combatantsHit = new ArrayList<>(1);
+        }
+        combatantsHit.add(hit);
         return combatantsHit;
     }
 
     public boolean inSight(Combatant a, Entity b) {
-        switch (a.direction) {
+        return inSight(a.getXcoord(), a.getYcoord(), a.getDirection(), b);
+    }
+
+    private boolean inSight(double x, double y, Movable.Direction direction, Entity b) {
+        switch (direction) {
             case UP:
-                if (b.getYcoord() < (a.getYcoord() - 0.4)) {
+                if (b.getYcoord() < (y - 0.4)) {
                     return true;
                 }
                 break;
             case DOWN:
-                if (b.getYcoord() > (a.getYcoord() + 0.4)) {
+                if (b.getYcoord() > (y + 0.4)) {
                     return true;
                 }
                 break;
             case LEFT:
-                if (b.getXcoord() < (a.getXcoord() - 0.4)) {
+                if (b.getXcoord() < (x - 0.4)) {
                     return true;
                 }
                 break;
             case RIGHT:
-                if (b.getXcoord() > (a.getXcoord() + 0.4)) {
+                if (b.getXcoord() > (x + 0.4)) {
                     return true;
                 }
                 break;
@@ -125,9 +221,9 @@ public class World {
 
     public void attackHit(Combatant attacker, List<Combatant> hit) {
         for (Combatant damaged : hit) {
-            damaged.decHp(attacker.getAtk() - damaged.getDef());
-            System.out.print("Player hit enemy");
-            System.out.println("Enemy hp = " + damaged.getHp());
+            final int damage = attacker.getAtk() - damaged.getDef();
+            damaged.decHp(damage);
+            log.combat(GameLog.Level.INFO, attacker.getId(), damaged.getId(), damage, damaged.getHp());
             if (damaged.getHp() <= 0) {
                 activeEnemies.remove(damaged);
             }
@@ -140,31 +236,82 @@ public class World {
      returns the corresponding double value */
 
     public double distance(Entity a, Entity b) {
-        double xDist = Math.abs(a.getXcoord() - b.getXcoord());
-        double yDist = Math.abs(a.getYcoord() - b.getYcoord());
+        return distance(a.getXcoord(), a.getYcoord(), b.getXcoord(), b.getYcoord());
+    }
+
+    private static double distance(double x1, double y1, double x2, double y2) {
+        double xDist = Math.abs(x1 - x2);
+        double yDist = Math.abs(y1 - y2);
         return Math.sqrt((yDist * yDist) + (xDist * xDist));
     }
+
+    //Same as distance(x1, y1, x2, y2) <= range without the square root
+    private static boolean isWithinRange(double x1, double y1, double x2, double y2, double range) {
+        final double xDist = x1 - x2;
+        final double yDist = y1 - y2;
+        return (xDist * xDist) + (yDist * yDist) <= range * range;
+    }
+
     public boolean isPathFree(Combatant c1, Combatant c2){
-        final ArrayList<Combatant> cs = new ArrayList<>();
-        cs.add(c2);
-        return isPathFree(c1, cs);
+        return isPathFree(c1.getXcoord(), c1.getYcoord(), c1.getMoveSpeed(), c1.getDirection(), c2);
     }
+
+    //For the active enemies only the broadphase cells around Combatant c are looked at
     public boolean isPathFree(Combatant c, List<Combatant> e){
+        final double x = c.getXcoord();
+        final double y = c.getYcoord();
+        final Movable.Direction direction = c.getDirection();
+        if (!isTerrainFree(x, y, c.getMoveSpeed(), direction)) {
+            return false;
+        }
+        if (e == activeEnemies) {
+            for (int cellX = CombatantStore.cellOf(x - blockingRange); cellX <= CombatantStore.cellOf(x + blockingRange); cellX++) {
+                for (int cellY = CombatantStore.cellOf(y - blockingRange); cellY <= CombatantStore.cellOf(y + blockingRange); cellY++) {
+                    for (int slot = activeEnemies.firstInCell(cellX, cellY); slot >= 0; slot = activeEnemies.nextInCell(slot)) {
+                        if (isEntityBlocking(x, y, direction, activeEnemies.get(slot))) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+        for(Combatant en : e){
+            if (isEntityBlocking(x, y, direction, en)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        double checkX1 = (worldHorizontalSideLength - 1)/2;
-        double checkY1 = (worldVerticalSideLength - 1)/2;
+    /*Same check as isPathFree(Combatant, Combatant) for a Combatant standing at x, y facing Direction direction,
+      only reads the world so it can be called for hypothetical positions and from several threads at once*/
+
+    boolean isPathFree(double x, double y, double moveSpeed, Movable.Direction direction, Entity other) {
+        return isPathFree(x, y, moveSpeed, direction, other, worldGrid);
+    }
+
+    //Checks the terrain of ReadOnlyTileGrid terrain, moves that leave it are never free
+    private boolean isPathFree(double x, double y, double moveSpeed, Movable.Direction direction, Entity other, ReadOnlyTileGrid terrain) {
+        return isTerrainFree(x, y, moveSpeed, direction, terrain) && !isEntityBlocking(x, y, direction, other);
+    }
+
+    private boolean isTerrainFree(double x, double y, double moveSpeed, Movable.Direction direction) {
+        return isTerrainFree(x, y, moveSpeed, direction, worldGrid);
+    }
 
-        Tile center = worldGrid.get((int) checkX1).get((int) checkY1);
+    private boolean isTerrainFree(double x, double y, double moveSpeed, Movable.Direction direction, ReadOnlyTileGrid terrain) {
 
-        checkX1 += (c.getXcoord() - center.getXcoord());
-        checkY1 += (c.getYcoord() - center.getYcoord());
+        // Position of c in grid columns and rows, the tile at column 0 row 0 lies at getMinX(), getMinY()
+        double checkX1 = x - terrain.getMinX();
+        double checkY1 = y - terrain.getMinY();
 
         double checkX2 = checkX1;
         double checkY2 = checkY1;
 
-        final double s = c.getMoveSpeed() - 0.05;
+        final double s = moveSpeed - 0.05;
 
-        switch(c.direction) {
+        switch(direction) {
             case UP:
                 checkX1 += 0.05;
                 checkX2 += 0.9;
@@ -172,6 +319,7 @@ public class World {
                 checkY2 -= s;
                 break;
             case DOWN:
+                checkX1 += 0.05;
                 checkX2 += 0.9;
                 checkY1 += 0.9 + s; // -0.05 to combat a potential rounding error
                 checkY2 += 0.9 + s;
@@ -179,59 +327,56 @@ public class World {
             case RIGHT:
                 checkX1 += 0.9 + s;
                 checkX2 += 0.9 + s;
+                checkY1 += 0.05;
                 checkY2 += 0.9;
                 break;
             case LEFT:
                 checkX1 -= s;
                 checkX2 -= s;
+                checkY1 += 0.05;
                 checkY2 += 0.9;
                 break;
         }
 
-        if(checkX1 < 0 || checkX2 < 0 || checkY1 < 0 || checkY2 < 0 || checkX1 > 21 || checkX2 > 21 || checkY1 > 13 || checkY2 > 13){
+        final int columns = terrain.getColumns();
+        final int rows = terrain.getRows();
+        if(checkX1 < 0 || checkX2 < 0 || checkY1 < 0 || checkY2 < 0 || checkX1 >= columns || checkX2 >= columns || checkY1 >= rows || checkY2 >= rows){
             return false;
         }
 
-        if (worldGrid.get((int) checkX1).get((int)checkY1).getISSolid()){
-            Tile tile = worldGrid.get((int) checkX1).get((int)checkY1);
-            //System.out.print("tile is solid and a " + tile.id + " has coord x: " + tile.getXcoord() + ", y: " + tile.getYcoord());
-            return false;
-        }
-        else if (worldGrid.get((int) checkX2).get((int) checkY2).getISSolid()){
-            Tile tile = worldGrid.get((int) checkX2).get((int)checkY2);
-            //System.out.print("tile is solid and a " + tile.id + " has coord x: " + tile.getXcoord() + ", y: " + tile.getYcoord());
+        if (terrain.get((int) checkX1, (int) checkY1).isSolid()){
             return false;
         }
+        return !terrain.get((int) checkX2, (int) checkY2).isSolid();
+    }
 
-        for(Combatant en : e){
-
-            if(isEntityInPath(c, en)){
-                if(distance(c, en) < 1/2){
-
-                    //System.out.print("There is an enemy in your path");
-                    return false;
-                }
-            }
+    private boolean isEntityBlocking(double x, double y, Movable.Direction direction, Entity en) {
+        if(isEntityInPath(x, y, direction, en)){
+            final double xDist = x - en.getXcoord();
+            final double yDist = y - en.getYcoord();
+            //System.out.print("There is an enemy in your path");
+            return Math.sqrt((xDist * xDist) + (yDist * yDist)) < 1/2;
         }
-
-        //System.out.print("tiles are not solid and a " + worldGrid.get((int) checkX1).get((int)checkY1).id + " and a " + worldGrid.get((int) checkX2).get((int)checkY2).id);
-        return true;
-
+        return false;
     }
 
     public boolean isEntityInPath(Combatant a, Entity b){
+        return isEntityInPath(a.getXcoord(), a.getYcoord(), a.getDirection(), b);
+    }
+
+    private boolean isEntityInPath(double x, double y, Movable.Direction direction, Entity b){
 
-        if(inSight(a,b)) {
-            switch (a.direction) {
+        if(inSight(x, y, direction, b)) {
+            switch (direction) {
                 case UP:
                 case DOWN:
-                    if ((a.coords.xCoord - 0.9) < b.coords.xCoord && b.coords.xCoord < (a.coords.xCoord + 0.9)) {
+                    if ((x - 0.9) < b.getXcoord() && b.getXcoord() < (x + 0.9)) {
                         return true;
                     }
                     break;
                 case LEFT:
                 case RIGHT:
-                    if ((a.coords.yCoord - 0.9) < b.coords.yCoord && b.coords.yCoord < (a.coords.yCoord + 0.9)) {
+                    if ((y - 0.9) < b.getYcoord() && b.getYcoord() < (y + 0.9)) {
                         return true;
                     }
                     break;
@@ -248,88 +393,287 @@ public class World {
         return distance(requester, target) <= range;
     }
 
+    /*Moves every active enemy, enemies within enemyDetectDistance chase Player and the others wander.
+    Chasing enemies follow flowField, which is only recomputed when Player or worldGrid moved to another tile.
+    When the way to Player leaves worldGrid they follow a path of pathfinder instead, see planLongPaths.
+    Enemies Player can not see are not moved on every tick, see isScheduled.
+    An enemy only looks at its own position, Player and the terrain, so the moves are planned for all enemies
+    at once, in parallel when there are many, and then applied one by one in activeEnemies order.
+    A wandering enemy rolls its move from its own random seed and the tick, so the rolls do not depend on the
+    order of activeEnemies or on the thread that plans them, and a world replays the same from the same seed*/
+
     public void moveMobs() {
+        long start = profiler.start();
         checkIfEntitiesInactive();
+        profiler.stop(TickProfiler.Phase.CHECK_INACTIVE, start);
+        start = profiler.start();
         checkIfEntitiesActive();
-        //Int to use for future random mob movement
-        //int rand = (int)Math.ceil(Math.random() * 2);
-        for (Combatant combatant : activeEnemies) {
-            if (isEntityWithinDistance(player, combatant, enemyDetectDistance)) {
-                if (player.getXcoord() + 0.9 < combatant.getXcoord()) {
-                    combatant.setDirection(Movable.Direction.LEFT);
-                    if(isPathFree(combatant, player)) {
-                        combatant.move(Movable.Direction.LEFT);
+        profiler.stop(TickProfiler.Phase.CHECK_ACTIVE, start);
+
+        start = profiler.start();
+        flowField.update(worldGrid, tileOf(player.getXcoord()), tileOf(player.getYcoord()));
+        profiler.stop(TickProfiler.Phase.FLOW_FIELD, start);
+        start = profiler.start();
+        planLongPaths();
+        updatePathArea();
+        profiler.stop(TickProfiler.Phase.LONG_PATHS, start);
+
+        start = profiler.start();
+        final int count = activeEnemies.size();
+        ensureMoveCapacity(count);
+        if (count < parallelMoveThreshold) {
+            planMoves(0, count);
+        } else {
+            movePool.invoke(new PlanMovesTask(0, count));
+        }
+
+        for (int i = 0; i < count; i++) {
+            Combatant combatant = activeEnemies.get(i);
+            if (firstMoves[i] != null) {
+                combatant.move(firstMoves[i]);
+            }
+            if (secondMoves[i] != null) {
+                combatant.move(secondMoves[i]);
+            }
+            if (plannedDirections[i] != null) {
+                combatant.setDirection(plannedDirections[i]);
+            }
+            firstMoves[i] = null;
+            secondMoves[i] = null;
+            plannedDirections[i] = null;
+        }
+        tick++;
+        profiler.stop(TickProfiler.Phase.ENEMY_MOVEMENT, start);
+    }
+
+    //Plans the moves of activeEnemies from int from up to int to, only reads the world
+    private void planMoves(int from, int to) {
+        final double playerX = player.getXcoord();
+        final double playerY = player.getYcoord();
+        for (int i = from; i < to; i++) {
+            double x = activeEnemies.getX(i);
+            final double y = activeEnemies.getY(i);
+            final Combatant enemy = activeEnemies.get(i);
+            final double speed = enemy.getMoveSpeed();
+            final double playerDistance = distance(x, y, playerX, playerY);
+            if (!isScheduled(enemy, x - playerX, y - playerY, playerDistance)) {
+                continue;
+            }
+
+            final boolean isOnLongPath = longPaths.containsKey(enemy);
+            if (playerDistance <= enemyDetectDistance || isOnLongPath) {
+                // Only enemies on a path of pathfinder may leave worldGrid
+                final ReadOnlyTileGrid terrain = isOnLongPath ? pathArea : worldGrid;
+                final int tileX = tileOf(x);
+                final int tileY = tileOf(y);
+                final Movable.Direction step = flowField.directionAt(tileX, tileY);
+                if (step != null && flowField.distanceAt(tileX, tileY) > 1) {
+                    // Heads for the corner of the next tile on the way, lining up with it on the other axis first
+                    int nextX = tileX;
+                    int nextY = tileY;
+                    switch (step) {
+                        case LEFT:
+                            nextX--;
+                            break;
+                        case RIGHT:
+                            nextX++;
+                            break;
+                        case UP:
+                            nextY--;
+                            break;
+                        default:
+                            nextY++;
                     }
-                } else if (player.getXcoord() - 0.9 > combatant.getXcoord()) {
-                    combatant.setDirection(Movable.Direction.RIGHT);
-                    if(isPathFree(combatant, player)) {
-                        combatant.move(Movable.Direction.RIGHT);
+                    planChase(i, x, y, speed, nextX, nextY, speed / 2, terrain);
+                } else {
+                    final PathFollower follower = longPaths.get(enemy);
+                    final Coordinates waypoint = follower == null ? null : follower.nextWaypoint(x, y, speed);
+                    if (waypoint != null) {
+                        planChase(i, x, y, speed, waypoint.getxCoord(), waypoint.getyCoord(), speed / 2, terrain);
+                    } else {
+                        // Next to Player, or no way around the terrain at all, so it walks straight at Player
+                        planChase(i, x, y, speed, playerX, playerY, 0.9, terrain);
                     }
                 }
-                if (player.getYcoord() + 0.9 < combatant.getYcoord()) {
-                    combatant.setDirection(Movable.Direction.UP);
-                    if(isPathFree(combatant, player)) {
-                        combatant.move(Movable.Direction.UP);
-                    }
-                } else if (player.getYcoord() - 0.9 > combatant.getYcoord()) {
-                    combatant.setDirection(Movable.Direction.DOWN);
-                    if(isPathFree(combatant, player)) {
-                        combatant.move(Movable.Direction.DOWN);
+            } else {
+                //  If mobs are not within distance the mobs shall move freely.
+                final long roll = RandomStreams.derive(movementSeed, enemy.getRandomSeed(), tick);
+                Movable.Direction direction = wanderDirection(1 + RandomStreams.boundedInt(roll, 5));
+                if (direction != null) {
+                    plannedDirections[i] = direction;
+                    if (isPathFree(x, y, speed, direction, player)) {
+                        firstMoves[i] = direction;
                     }
                 }
             }
-            //  If mobs are not within distance the mobs shall move freely.
-            else {
-                int rand = (int) Math.ceil(Math.random() * 5);
-                switch (rand) {
-                    case 1:
-                        combatant.setDirection(Movable.Direction.DOWN);
-                        if(isPathFree(combatant, player)) {
-                            combatant.move(Movable.Direction.DOWN);
-                        }
-                        break;
-                    case 2:
-                        combatant.setDirection(Movable.Direction.UP);
-                        if(isPathFree(combatant, player)) {
-                            combatant.move(Movable.Direction.UP);
-                        }
-                        break;
-                    case 3:
-                        combatant.setDirection(Movable.Direction.LEFT);
-                        if(isPathFree(combatant, player)) {
-                            combatant.move(Movable.Direction.LEFT);
-                        }
-                        break;
-                    case 4:
-                        combatant.setDirection(Movable.Direction.RIGHT);
-                        if(isPathFree(combatant, player)) {
-                            combatant.move(Movable.Direction.RIGHT);
-                        }
-                        break;
-                    case 5:
-                        break;
-                }
+        }
+    }
+
+    /*Finds a path with pathfinder for every chasing enemy that flowField can not lead to Player, because the
+      way around the terrain leaves worldGrid. An enemy on such a path keeps chasing when the detour takes it
+      beyond enemyDetectDistance, until the path ends or flowField reaches it again, and gets a new path
+      whenever Player moves to another tile. Runs before the moves are planned, planMoves only reads longPaths*/
+
+    private void planLongPaths() {
+        final int playerTileX = tileOf(player.getXcoord());
+        final int playerTileY = tileOf(player.getYcoord());
+        final long target = Coordinates.pack(playerTileX, playerTileY);
+        final boolean isTargetMoved = target != longPathTarget;
+        longPathTarget = target;
+        longPaths.keySet().removeIf(enemy -> !activeEnemies.contains(enemy));
+        for (int i = 0; i < activeEnemies.size(); i++) {
+            final double x = activeEnemies.getX(i);
+            final double y = activeEnemies.getY(i);
+            final Combatant enemy = activeEnemies.get(i);
+            final PathFollower follower = longPaths.get(enemy);
+            final boolean isDetected = distance(x, y, player.getXcoord(), player.getYcoord()) <= enemyDetectDistance;
+            if (flowField.distanceAt(tileOf(x), tileOf(y)) >= 0
+                    || (!isDetected && (follower == null || follower.isFinished()))) {
+                longPaths.remove(enemy);
+            } else if (follower == null || isTargetMoved) {
+                longPaths.put(enemy, new PathFollower(pathfinder.findPath(tileOf(x), tileOf(y), playerTileX, playerTileY)));
             }
         }
+    }
 
+    //Centers pathArea on Player while any enemy is on a long path, only the tiles that come into it are generated
+    private void updatePathArea() {
+        if (longPaths.isEmpty()) {
+            return;
+        }
+        final int side = 2 * (int) activeDistance + 3;
+        final int minX = tileOf(player.getXcoord()) - side / 2;
+        final int minY = tileOf(player.getYcoord()) - side / 2;
+        if (pathArea == null) {
+            pathArea = new TileGrid(tileFactory, side, side, minX, minY);
+        } else {
+            pathArea.scrollTo(minX, minY);
+        }
+    }
 
+    boolean isScheduled(Combatant enemy) {
+        final double xDist = enemy.getXcoord() - player.getXcoord();
+        final double yDist = enemy.getYcoord() - player.getYcoord();
+        return isScheduled(enemy, xDist, yDist, distance(enemy, player));
     }
 
+    /*Level of detail of the enemy updates. Enemies that chase Player or are on screen are updated on every tick,
+      the others every second tick within halfRateDistance and every fourth tick beyond it. The tick an enemy
+      is updated on only depends on tick and its random seed, so the updates of a crowd are spread evenly over
+      the ticks, and an enemy is updated on every tick again as soon as Player comes close*/
 
-    /*Checks if entities in inactiveChests and inactiveEnemies have come into viewport,
-    If they have come into viewport they are removed from inactiveChests or inactiveEnemies Map
-    and added to activeChests or activeEnemies List*/
+    private boolean isScheduled(Combatant enemy, double xDist, double yDist, double playerDistance) {
+        if (playerDistance <= enemyDetectDistance || longPaths.containsKey(enemy)
+                || (Math.abs(xDist) <= worldHorizontalSideLength / 2 + 1 && Math.abs(yDist) <= worldVerticalSideLength / 2 + 1)) {
+            return true;
+        }
+        final int period = playerDistance <= halfRateDistance ? 2 : 4;
+        return ((tick + enemy.getRandomSeed()) & (period - 1)) == 0;
+    }
 
-    public void checkIfEntitiesInactive() {
-        List<Combatant> newlyInactiveEnemies = new ArrayList<>();
-        for (Combatant combatant : activeEnemies) {
-            if (!isEntityWithinDistance(combatant, player, activeDistance)) {
-                newlyInactiveEnemies.add(combatant);
+    /*Plans a step along each axis towards double targetX, double targetY, stopping double margin short of it.
+      The steps are checked against ReadOnlyTileGrid terrain*/
+
+    private void planChase(int i, double x, double y, double speed, double targetX, double targetY, double margin, ReadOnlyTileGrid terrain) {
+        if (targetX + margin < x) {
+            plannedDirections[i] = Movable.Direction.LEFT;
+            if (isPathFree(x, y, speed, Movable.Direction.LEFT, player, terrain)) {
+                firstMoves[i] = Movable.Direction.LEFT;
+                x -= speed;
+            }
+        } else if (targetX - margin > x) {
+            plannedDirections[i] = Movable.Direction.RIGHT;
+            if (isPathFree(x, y, speed, Movable.Direction.RIGHT, player, terrain)) {
+                firstMoves[i] = Movable.Direction.RIGHT;
+                x += speed;
             }
         }
-        for (Combatant combatant : newlyInactiveEnemies) {
-            activeEnemies.remove(combatant);
-            inactiveEnemies.put(combatant.getCoords(), combatant);
+        if (targetY + margin < y) {
+            plannedDirections[i] = Movable.Direction.UP;
+            if (isPathFree(x, y, speed, Movable.Direction.UP, player, terrain)) {
+                secondMoves[i] = Movable.Direction.UP;
+            }
+        } else if (targetY - margin > y) {
+            plannedDirections[i] = Movable.Direction.DOWN;
+            if (isPathFree(x, y, speed, Movable.Direction.DOWN, player, terrain)) {
+                secondMoves[i] = Movable.Direction.DOWN;
+            }
+        }
+    }
+
+    //The tile an entity at double coord mostly stands on, entities are a bit smaller than a tile
+    private static int tileOf(double coord) {
+        return (int) Math.floor(coord + 0.45);
+    }
+
+    //A roll of 5 means the mob stands still
+    private static Movable.Direction wanderDirection(int roll) {
+        switch (roll) {
+            case 1:
+                return Movable.Direction.DOWN;
+            case 2:
+                return Movable.Direction.UP;
+            case 3:
+                return Movable.Direction.LEFT;
+            case 4:
+                return Movable.Direction.RIGHT;
+            default:
+                return null;
+        }
+    }
+
+    private void ensureMoveCapacity(int count) {
+        if (firstMoves.length < count) {
+            final int capacity = Math.max(count, firstMoves.length * 2);
+            firstMoves = new Movable.Direction[capacity];
+            secondMoves = new Movable.Direction[capacity];
+            plannedDirections = new Movable.Direction[capacity];
+        }
+    }
+
+    //Splits a range of activeEnemies in halves until it is small enough to plan on one thread
+    private class PlanMovesTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        PlanMovesTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= Math.max(1, parallelMoveThreshold / 2)) {
+                planMoves(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new PlanMovesTask(from, middle), new PlanMovesTask(middle, to));
+        }
+    }
+
+    void setParallelMoveThreshold(int parallelMoveThreshold) {
+        this.parallelMoveThreshold = parallelMoveThreshold;
+    }
+
+
+    /*Checks if entities in activeChests and activeEnemies still are in viewport,
+    If they are no longer in viewport they are stored in the inactiveChests or inactiveEnemies grid and
+    removed from activeChests or activeEnemies List*/
+
+    public void checkIfEntitiesInactive() {
+        final double playerX = player.getXcoord();
+        final double playerY = player.getYcoord();
+        //Walks the store backwards so the enemy swapped into a removed slot has already been checked
+        for (int i = activeEnemies.size() - 1; i >= 0; i--) {
+            if (distance(activeEnemies.getX(i), activeEnemies.getY(i), playerX, playerY) > activeDistance) {
+                Combatant combatant = activeEnemies.remove(i);
+                inactiveEnemies.add(combatant);
+                if (chunkPersistence != null) {
+                    chunkPersistence.entityAdded(combatant);
+                }
+            }
         }
         List<Chest> newlyInactiveChests = new ArrayList<>();
         for (Chest chest : activeChests) {
@@ -339,82 +683,74 @@ public class World {
         }
         for (Chest chest : newlyInactiveChests) {
             activeChests.remove(chest);
-            inactiveChests.put(chest.getCoords(), chest);
+            inactiveChests.add(chest);
+            if (chunkPersistence != null) {
+                chunkPersistence.entityAdded(chest);
+            }
         }
     }
 
-    /*Checks if entities in activeChests and activeEnemies still are in viewport,
-    If they are no longer in viewport they are stored in inactiveChests or inactiveEnemies Map and
-    removed from activeChests or activeEnemies List*/
+    /*Populates the chunks within activeDistance of Player that have not been reached before,
+    then checks if entities in inactiveChests and inactiveEnemies have come into viewport,
+    only the spatial grid cells overlapping activeDistance around Player are looked at.
+    Entities that have come into viewport are removed from the grids and added to activeChests or activeEnemies List.
+    With chunk persistence enabled, stored chunks near Player are loaded first and chunks over the resident limit are stored afterwards*/
 
         public void checkIfEntitiesActive () {
-            List<Combatant> newlyActive = new ArrayList<>();
-            for (Combatant combatant : inactiveEnemies.values()) {
-                if (isEntityWithinDistance(combatant, player, activeDistance)) {
-                    activeEnemies.add(combatant);
-                    newlyActive.add(combatant);
-                }
+            chunkSpawner.populateAround(player.getXcoord(), player.getYcoord(), activeDistance, inactiveEnemies, inactiveChests);
+            if (chunkPersistence != null) {
+                chunkPersistence.keepAround(player.getXcoord(), player.getYcoord(), activeDistance + chunkSize);
+                chunkPersistence.applyLoads(player.getXcoord(), player.getYcoord(), activeDistance, inactiveEnemies, inactiveChests);
             }
-            for (Combatant combatant : newlyActive) {
-                inactiveEnemies.remove(combatant.getCoords());
+            inactiveEnemies.removeWithinDistance(player.getXcoord(), player.getYcoord(), activeDistance, activeEnemies);
+            inactiveChests.removeWithinDistance(player.getXcoord(), player.getYcoord(), activeDistance, activeChests);
+            if (chunkPersistence != null) {
+                chunkPersistence.evictOverflow(player.getXcoord(), player.getYcoord(), activeDistance + chunkSize, inactiveEnemies, inactiveChests);
             }
-            List<Chest> newlyActive2 = new ArrayList<>();
-            for (Chest chest : inactiveChests.values()) {
-                if (isEntityWithinDistance(chest, player, activeDistance)) {
-                    activeChests.add(chest);
-                    newlyActive2.add(chest);
-                }
+        }
+
+        /*Keeps at most int maxResidentChunks chunks of inactive enemies and chests in memory, the others are
+        stored in region files in Path directory and loaded again when Player comes back.
+        Chunks within one chunk of activeDistance around Player are always kept in memory*/
+
+        public void enableChunkPersistence (Path directory, int maxResidentChunks) throws IOException {
+            if (chunkPersistence != null) {
+                throw new IllegalStateException("Chunk persistence is already enabled");
             }
-            for (Chest chest : newlyActive2) {
-                inactiveChests.remove(chest.getCoords());
+            chunkPersistence = new ChunkPersistence(directory, maxResidentChunks, chunkSize);
+            inactiveEnemies.forEach(chunkPersistence::entityAdded);
+            inactiveChests.forEach(chunkPersistence::entityAdded);
+        }
+
+        //Waits for stored chunks to be written, the stored entities are lost for this World afterwards
+        public void closeChunkPersistence () {
+            if (chunkPersistence != null) {
+                chunkPersistence.close();
+                chunkPersistence = null;
             }
         }
 
+        int getResidentChunkCount () {
+            return chunkPersistence == null ? 0 : chunkPersistence.getResidentChunkCount();
+        }
+
+        int getStoredChunkCount () {
+            return chunkPersistence == null ? 0 : chunkPersistence.getStoredChunkCount();
+        }
+
+        /*Scrolls worldGrid so it stays centered on the tile Player stands on,
+        only the columns and rows that come into the viewport are generated*/
+
         void updateWorldGrid() {
-            final double playerXcoord = Math.round(this.player.getXcoord()); // To fix rounding error
-            final double playerYcoord = Math.round(this.player.getYcoord()); // To fix rounding error
-
-            final double maxYViewport = playerYcoord + (worldVerticalSideLength - 1) / 2;
-            final double minYViewport = playerYcoord - (worldVerticalSideLength - 1) / 2;
-            final double maxXViewport = playerXcoord + (worldHorizontalSideLength - 1) / 2;
-            final double minXViewport = playerXcoord - (worldHorizontalSideLength - 1) / 2;
-
-            final boolean shouldUpdateTiles =
-                    Math.round(this.player.getPrevYCoord()) != playerYcoord
-                 || Math.round(this.player.getPrevXCoord()) != playerXcoord;
-
-            if(shouldUpdateTiles){
-                switch (this.player.direction) {
-                    case UP:
-                        for (LinkedList<Tile> column : worldGrid) {
-                            column.removeLast();
-                            column.addFirst(tileFactory.generateTile(column.getFirst().getXcoord(), minYViewport));
-                        }
-                        break;
-                    case DOWN:
-                        for (LinkedList<Tile> column : worldGrid) {
-                            column.removeFirst();
-                            column.addLast(tileFactory.generateTile(column.getFirst().getXcoord(), maxYViewport));
-                        }
-                        break;
-                    case LEFT:
-                        worldGrid.removeLast();
-                        LinkedList<Tile> newFirstColumn = new LinkedList<>();
-                        for (int y = (int) minYViewport; y <= (int) maxYViewport; y++) {
-                            newFirstColumn.addLast(tileFactory.generateTile(minXViewport, y));
-                        }
-                        worldGrid.addFirst(newFirstColumn);
-                        break;
-                    case RIGHT:
-                        worldGrid.removeFirst();
-                        LinkedList<Tile> newLastColumn = new LinkedList<>();
-                        for (int y = (int) minYViewport; y <= (int) maxYViewport; y++) {
-                            newLastColumn.addLast(tileFactory.generateTile(maxXViewport, y));
-                        }
-                        worldGrid.addLast(newLastColumn);
-                        break;
-                }
-            }
+            final long start = profiler.start();
+            final int playerXcoord = (int) Math.round(this.player.getXcoord()); // To fix rounding error
+            final int playerYcoord = (int) Math.round(this.player.getYcoord()); // To fix rounding error
+
+            final int minXViewport = playerXcoord - (int) ((worldHorizontalSideLength - 1) / 2);
+            final int minYViewport = playerYcoord - (int) ((worldVerticalSideLength - 1) / 2);
+
+            worldGrid.scrollTo(minXViewport, minYViewport);
+            profiler.stop(TickProfiler.Phase.UPDATE_WORLD_GRID, start);
         }
 
         public List<Combatant> getPlayers () {
@@ -425,6 +761,10 @@ public class World {
             return activeEnemies;
         }
 
+        CombatantStore getEnemyStore () {
+            return activeEnemies;
+        }
+
         public List<Chest> getActiveChests () {
             return activeChests;
         }
@@ -433,9 +773,117 @@ public class World {
             return player;
         }
 
-        public LinkedList<LinkedList<Tile>> getWorldGrid () {
+        public long getSeed () {
+            return seed;
+        }
+
+        //The seed of the terrain noise of a world with long worldSeed, to seed a NoiseGenerator with
+        public static long noiseSeedOf (long worldSeed) {
+            return RandomStreams.derive(worldSeed, noiseStream);
+        }
+
+        public long getTick () {
+            return tick;
+        }
+
+        void restoreTick (long restored) {
+            tick = restored;
+        }
+
+        public int getChunkSize () {
+            return chunkSize;
+        }
+
+        /*A chunk is loaded while it overlaps the square of activeDistance around Player,
+        the same chunks the chunkSpawner populates*/
+
+        public boolean isChunkLoaded (int chunkX, int chunkY) {
+            return chunkX >= minLoadedChunk(player.getXcoord()) && chunkX <= maxLoadedChunk(player.getXcoord())
+                && chunkY >= minLoadedChunk(player.getYcoord()) && chunkY <= maxLoadedChunk(player.getYcoord());
+        }
+
+        int minLoadedChunk (double playerCoord) {
+            return (int) Math.floor((playerCoord - activeDistance) / chunkSize);
+        }
+
+        int maxLoadedChunk (double playerCoord) {
+            return (int) Math.floor((playerCoord + activeDistance) / chunkSize);
+        }
+
+        //Fills out row by row with the tile type ids of chunk chunkX, chunkY
+        public void fillTerrainChunk (int chunkX, int chunkY, byte[] out) {
+            tileFactory.fillChunk(out, chunkX * chunkSize, chunkY * chunkSize, chunkSize, chunkSize);
+        }
+
+        TileFactory getTileFactory () {
+            return tileFactory;
+        }
+
+        public ReadOnlyTileGrid getWorldGrid () {
             return worldGrid;
         }
 
+        public TickProfiler getProfiler () {
+            return profiler;
+        }
+
+        int getSpawnAreaSide () {
+            return spawnAreaSide;
+        }
+
+        int getEnemyCount () {
+            return enemyCount;
+        }
+
+        int getChestCount () {
+            return chestCount;
+        }
+
+        //Enemies and chests of the chunks in memory, the ones stored on disk are read with readStoredChunks()
+        void forEachResidentEnemy (Consumer<Combatant> action) {
+            activeEnemies.forEach(action);
+            inactiveEnemies.forEach(action);
+        }
+
+        void forEachResidentChest (Consumer<Chest> action) {
+            activeChests.forEach(action);
+            inactiveChests.forEach(action);
+        }
+
+        //See ChunkPersistence.readStored, empty without chunk persistence
+        List<Future<byte[]>> readStoredChunks () {
+            return chunkPersistence == null ? Collections.emptyList() : chunkPersistence.readStored();
+        }
+
+        long[] getPopulatedChunkKeys () {
+            return chunkSpawner.getPopulatedChunkKeys();
+        }
+
+        /*Used when restoring a saved world, the enemies and chests are added as inactive and the chunks
+        are marked as populated so the chunkSpawner does not populate them again*/
+
+        void restorePlayer (Player restored) {
+            players.set(players.indexOf(player), restored);
+            player = restored;
+            updateWorldGrid();
+        }
+
+        void restoreEnemy (Combatant enemy) {
+            inactiveEnemies.add(enemy);
+        }
+
+        void restoreChest (Chest chest) {
+            inactiveChests.add(chest);
+        }
+
+        void restorePopulatedChunk (long chunkKey) {
+            chunkSpawner.markPopulated(chunkKey);
+        }
+
+        //Off by default, see GameLog.setLevel
+        public GameLog getLog () {
+            return log;
+        }
+
     }
 
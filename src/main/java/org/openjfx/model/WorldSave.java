@@ -0,0 +1,463 @@
+package org.openjfx.model;
+
+import org.openjfx.model.noise.NoiseGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/*Saved state of a World: the seed and spawn settings, the Player with its inventory, the chunks
+  that have been populated and every enemy and chest in them.
+  capture() copies the chunks in memory into primitive arrays and has to run on the thread that changes the
+  world, the chunks stored on disk are only queued for reading then. write() waits for those reads and adds
+  their entities before writing, so it and read() only touch the copy and the files and can run on any thread.
+
+  File layout, all numbers big endian:
+  header     int magic, int version, long seed, long tick, int spawnAreaSide, int enemyCount, int chestCount
+  strings    int count, then per string short length and that many UTF-8 bytes
+  player     short id, double x, double y, int hp, int atk, int def, float atkRange, int exp,
+             int selectedItem, int cooldown, byte direction, inventorySize items
+  chunks     int count, long chunk key per populated chunk
+  enemies    int count, per enemy short type, double x, double y, int hp, int atk, int def,
+             float atkRange, int cooldown, byte direction, long randomSeed
+  chests     int count, per chest short id, double x, double y, inventorySize items
+  item       byte kind (0 empty slot, 1 weapon, 2 armor), short id, int bonus, byte selected
+  Strings are stored once and referred to by their index in the string table*/
+
+public final class WorldSave {
+    private static final int magic = 0x534B5753;
+    private static final int version = 2;
+    private static final int inventorySize = 4;
+    private static final int headerBytes = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+    private static final int itemBytes = 1 + 2 + 4 + 1;
+    private static final int playerBytes = 2 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + 4 + 4 + 1 + inventorySize * itemBytes;
+    private static final int enemyBytes = 2 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + 1 + 8;
+    private static final int chestBytes = 2 + 8 + 8 + inventorySize * itemBytes;
+    private static final byte emptySlot = 0;
+    private static final byte weapon = 1;
+    private static final byte armor = 2;
+    private static final Movable.Direction[] directions = Movable.Direction.values();
+
+    private long seed;
+    private long tick;
+    private int spawnAreaSide;
+    private int enemyCount;
+    private int chestCount;
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Short> stringIndexes = new HashMap<>();
+
+    private short playerId;
+    private double playerX;
+    private double playerY;
+    private int playerHp;
+    private int playerAtk;
+    private int playerDef;
+    private float playerAtkRange;
+    private int playerExp;
+    private int playerSelectedItem;
+    private int playerCooldown;
+    private byte playerDirection;
+    private byte[] playerItemKinds = new byte[inventorySize];
+    private short[] playerItemIds = new short[inventorySize];
+    private int[] playerItemBonuses = new int[inventorySize];
+    private boolean[] isPlayerItemSelected = new boolean[inventorySize];
+
+    private long[] chunkKeys;
+
+    private int enemies;
+    private short[] enemyTypes = new short[0];
+    private double[] enemyX = new double[0];
+    private double[] enemyY = new double[0];
+    private int[] enemyHp = new int[0];
+    private int[] enemyAtk = new int[0];
+    private int[] enemyDef = new int[0];
+    private float[] enemyAtkRange = new float[0];
+    private int[] enemyCooldown = new int[0];
+    private byte[] enemyDirection = new byte[0];
+    private long[] enemyRandomSeed = new long[0];
+
+    private int chests;
+    private short[] chestIds = new short[0];
+    private double[] chestX = new double[0];
+    private double[] chestY = new double[0];
+    private byte[] chestItemKinds = new byte[0];
+    private short[] chestItemIds = new short[0];
+    private int[] chestItemBonuses = new int[0];
+    private boolean[] isChestItemSelected = new boolean[0];
+
+    //Reads of the chunks that were stored on disk when the world was captured, added by write()
+    private List<Future<byte[]>> storedChunkReads = Collections.emptyList();
+
+    private WorldSave() {
+    }
+
+    //Copies the state of World world, has to be called on the thread that changes world
+    public static WorldSave capture(World world) {
+        WorldSave save = new WorldSave();
+        save.seed = world.getSeed();
+        save.tick = world.getTick();
+        save.spawnAreaSide = world.getSpawnAreaSide();
+        save.enemyCount = world.getEnemyCount();
+        save.chestCount = world.getChestCount();
+
+        Player player = world.getPlayer();
+        save.playerId = save.stringIndex(player.getId());
+        save.playerX = player.getXcoord();
+        save.playerY = player.getYcoord();
+        save.playerHp = player.getHp();
+        save.playerAtk = player.getAtk();
+        save.playerDef = player.getDef();
+        save.playerAtkRange = (float) player.getAtkRange();
+        save.playerExp = player.getExp();
+        save.playerSelectedItem = player.getSelectedItem();
+        save.playerCooldown = player.getAttackCooldownTicker();
+        save.playerDirection = (byte) player.getDirection().ordinal();
+        Item[] inventory = player.getInventory();
+        for (int i = 0; i < inventorySize; i++) {
+            save.captureItem(inventory[i], i, save.playerItemKinds, save.playerItemIds, save.playerItemBonuses, save.isPlayerItemSelected);
+        }
+
+        save.chunkKeys = world.getPopulatedChunkKeys();
+
+        List<Combatant> residentEnemies = new ArrayList<>();
+        world.forEachResidentEnemy(residentEnemies::add);
+        save.captureEnemies(residentEnemies);
+        List<Chest> residentChests = new ArrayList<>();
+        world.forEachResidentChest(residentChests::add);
+        save.captureChests(residentChests);
+        save.storedChunkReads = world.readStoredChunks();
+        return save;
+    }
+
+    /*Writes the save to Path path through a memory mapped file. The save is written next to path first
+      and then moved over it, so an interrupted write never leaves a broken save behind.
+      Waits for the stored chunks of the captured world to be read from disk first*/
+
+    public void write(Path path) throws IOException {
+        captureStoredChunks();
+        final byte[][] encodedStrings = new byte[strings.size()][];
+        long size = headerBytes + 4 + playerBytes + 4 + 8L * chunkKeys.length
+                + 4 + (long) enemyBytes * enemies + 4 + (long) chestBytes * chests;
+        for (int i = 0; i < encodedStrings.length; i++) {
+            encodedStrings[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            size += 2 + encodedStrings[i].length;
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(magic).putInt(version).putLong(seed).putLong(tick)
+                    .putInt(spawnAreaSide).putInt(enemyCount).putInt(chestCount);
+
+            buffer.putInt(encodedStrings.length);
+            for (byte[] encoded : encodedStrings) {
+                buffer.putShort((short) encoded.length).put(encoded);
+            }
+
+            buffer.putShort(playerId).putDouble(playerX).putDouble(playerY)
+                    .putInt(playerHp).putInt(playerAtk).putInt(playerDef).putFloat(playerAtkRange)
+                    .putInt(playerExp).putInt(playerSelectedItem).putInt(playerCooldown).put(playerDirection);
+            for (int i = 0; i < inventorySize; i++) {
+                putItem(buffer, i, playerItemKinds, playerItemIds, playerItemBonuses, isPlayerItemSelected);
+            }
+
+            buffer.putInt(chunkKeys.length);
+            for (long chunkKey : chunkKeys) {
+                buffer.putLong(chunkKey);
+            }
+
+            buffer.putInt(enemies);
+            for (int i = 0; i < enemies; i++) {
+                buffer.putShort(enemyTypes[i]).putDouble(enemyX[i]).putDouble(enemyY[i])
+                        .putInt(enemyHp[i]).putInt(enemyAtk[i]).putInt(enemyDef[i]).putFloat(enemyAtkRange[i])
+                        .putInt(enemyCooldown[i]).put(enemyDirection[i]).putLong(enemyRandomSeed[i]);
+            }
+
+            buffer.putInt(chests);
+            for (int i = 0; i < chests; i++) {
+                buffer.putShort(chestIds[i]).putDouble(chestX[i]).putDouble(chestY[i]);
+                for (int j = 0; j < inventorySize; j++) {
+                    putItem(buffer, i * inventorySize + j, chestItemKinds, chestItemIds, chestItemBonuses, isChestItemSelected);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //Reads a save written by write(), throws an IOException if Path path is not a save of this version
+    public static WorldSave read(Path path) throws IOException {
+        WorldSave save = new WorldSave();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < headerBytes || buffer.getInt() != magic) {
+                throw new IOException(path + " is not a world save");
+            }
+            final int savedVersion = buffer.getInt();
+            if (savedVersion != version) {
+                throw new IOException(path + " has save version " + savedVersion + ", expected " + version);
+            }
+            save.seed = buffer.getLong();
+            save.tick = buffer.getLong();
+            save.spawnAreaSide = buffer.getInt();
+            save.enemyCount = buffer.getInt();
+            save.chestCount = buffer.getInt();
+
+            final int stringCount = buffer.getInt();
+            for (int i = 0; i < stringCount; i++) {
+                byte[] encoded = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(encoded);
+                save.stringIndex(new String(encoded, StandardCharsets.UTF_8));
+            }
+
+            save.playerId = buffer.getShort();
+            save.playerX = buffer.getDouble();
+            save.playerY = buffer.getDouble();
+            save.playerHp = buffer.getInt();
+            save.playerAtk = buffer.getInt();
+            save.playerDef = buffer.getInt();
+            save.playerAtkRange = buffer.getFloat();
+            save.playerExp = buffer.getInt();
+            save.playerSelectedItem = buffer.getInt();
+            save.playerCooldown = buffer.getInt();
+            save.playerDirection = buffer.get();
+            for (int i = 0; i < inventorySize; i++) {
+                getItem(buffer, i, save.playerItemKinds, save.playerItemIds, save.playerItemBonuses, save.isPlayerItemSelected);
+            }
+
+            save.chunkKeys = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(save.chunkKeys);
+            buffer.position(buffer.position() + 8 * save.chunkKeys.length);
+
+            save.enemies = buffer.getInt();
+            save.resizeEnemies(save.enemies);
+            for (int i = 0; i < save.enemies; i++) {
+                save.enemyTypes[i] = buffer.getShort();
+                save.enemyX[i] = buffer.getDouble();
+                save.enemyY[i] = buffer.getDouble();
+                save.enemyHp[i] = buffer.getInt();
+                save.enemyAtk[i] = buffer.getInt();
+                save.enemyDef[i] = buffer.getInt();
+                save.enemyAtkRange[i] = buffer.getFloat();
+                save.enemyCooldown[i] = buffer.getInt();
+                save.enemyDirection[i] = buffer.get();
+                save.enemyRandomSeed[i] = buffer.getLong();
+            }
+
+            save.chests = buffer.getInt();
+            save.resizeChests(save.chests);
+            for (int i = 0; i < save.chests; i++) {
+                save.chestIds[i] = buffer.getShort();
+                save.chestX[i] = buffer.getDouble();
+                save.chestY[i] = buffer.getDouble();
+                for (int j = 0; j < inventorySize; j++) {
+                    getItem(buffer, i * inventorySize + j,
+                            save.chestItemKinds, save.chestItemIds, save.chestItemBonuses, save.isChestItemSelected);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException(path + " is not a valid world save", e);
+        }
+        return save;
+    }
+
+    /*Builds the saved World, NoiseGenerator noiseGenerator has to generate the same terrain as the one
+      of the saved world. The saved enemies and chests start out inactive and are activated as usual*/
+
+    public World toWorld(NoiseGenerator noiseGenerator) {
+        World world = new World(noiseGenerator, seed, spawnAreaSide, enemyCount, chestCount);
+        world.restoreTick(tick);
+
+        Player player = new Player(strings.get(playerId), playerX, playerY, playerHp, playerAtk, playerAtkRange, playerDef);
+        player.incExp(playerExp);
+        for (int i = 0; i < inventorySize; i++) {
+            player.setItem(toItem(i, playerItemKinds, playerItemIds, playerItemBonuses, isPlayerItemSelected), i);
+        }
+        player.restoreSelectedItem(playerSelectedItem);
+        player.attackCooldownTicker = playerCooldown;
+        player.direction = directions[playerDirection];
+        world.restorePlayer(player);
+
+        for (long chunkKey : chunkKeys) {
+            world.restorePopulatedChunk(chunkKey);
+        }
+
+        for (int i = 0; i < enemies; i++) {
+            Enemy enemy = new Enemy(strings.get(enemyTypes[i]), enemyX[i], enemyY[i],
+                    enemyHp[i], enemyAtk[i], enemyAtkRange[i], enemyDef[i]);
+            enemy.attackCooldownTicker = enemyCooldown[i];
+            enemy.direction = directions[enemyDirection[i]];
+            enemy.randomSeed = enemyRandomSeed[i];
+            world.restoreEnemy(enemy);
+        }
+
+        for (int i = 0; i < chests; i++) {
+            Item[] items = new Item[inventorySize];
+            for (int j = 0; j < inventorySize; j++) {
+                items[j] = toItem(i * inventorySize + j, chestItemKinds, chestItemIds, chestItemBonuses, isChestItemSelected);
+            }
+            world.restoreChest(new Chest(strings.get(chestIds[i]), chestX[i], chestY[i], items));
+        }
+        return world;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getSavedEnemyCount() {
+        return enemies;
+    }
+
+    public int getSavedChestCount() {
+        return chests;
+    }
+
+    //Adds the entities of the chunks read for the captured world, only the first call waits for the reads
+    private void captureStoredChunks() throws IOException {
+        List<Combatant> storedEnemies = new ArrayList<>();
+        List<Chest> storedChests = new ArrayList<>();
+        try {
+            ChunkPersistence.decodeStored(storedChunkReads, storedEnemies::add, storedChests::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        storedChunkReads = Collections.emptyList();
+        captureEnemies(storedEnemies);
+        captureChests(storedChests);
+    }
+
+    //Appends copies of List<Combatant> added to the saved enemies
+    private void captureEnemies(List<Combatant> added) {
+        final int first = enemies;
+        enemies += added.size();
+        resizeEnemies(enemies);
+        for (int i = first; i < enemies; i++) {
+            Combatant enemy = added.get(i - first);
+            enemyTypes[i] = stringIndex(enemy.getId());
+            enemyX[i] = enemy.getXcoord();
+            enemyY[i] = enemy.getYcoord();
+            enemyHp[i] = enemy.getHp();
+            enemyAtk[i] = enemy.getAtk();
+            enemyDef[i] = enemy.getDef();
+            enemyAtkRange[i] = (float) enemy.getAtkRange();
+            enemyCooldown[i] = enemy.getAttackCooldownTicker();
+            enemyDirection[i] = (byte) enemy.getDirection().ordinal();
+            enemyRandomSeed[i] = enemy.getRandomSeed();
+        }
+    }
+
+    //Appends copies of List<Chest> added to the saved chests
+    private void captureChests(List<Chest> added) {
+        final int first = chests;
+        chests += added.size();
+        resizeChests(chests);
+        for (int i = first; i < chests; i++) {
+            Chest chest = added.get(i - first);
+            chestIds[i] = stringIndex(chest.getId());
+            chestX[i] = chest.getXcoord();
+            chestY[i] = chest.getYcoord();
+            for (int j = 0; j < inventorySize; j++) {
+                captureItem(chest.getItem(j), i * inventorySize + j,
+                        chestItemKinds, chestItemIds, chestItemBonuses, isChestItemSelected);
+            }
+        }
+    }
+
+    //Resizes the enemy arrays to int size entries, keeping the ones already there
+    private void resizeEnemies(int size) {
+        enemyTypes = Arrays.copyOf(enemyTypes, size);
+        enemyX = Arrays.copyOf(enemyX, size);
+        enemyY = Arrays.copyOf(enemyY, size);
+        enemyHp = Arrays.copyOf(enemyHp, size);
+        enemyAtk = Arrays.copyOf(enemyAtk, size);
+        enemyDef = Arrays.copyOf(enemyDef, size);
+        enemyAtkRange = Arrays.copyOf(enemyAtkRange, size);
+        enemyCooldown = Arrays.copyOf(enemyCooldown, size);
+        enemyDirection = Arrays.copyOf(enemyDirection, size);
+        enemyRandomSeed = Arrays.copyOf(enemyRandomSeed, size);
+    }
+
+    //Resizes the chest arrays to int size chests, keeping the ones already there
+    private void resizeChests(int size) {
+        chestIds = Arrays.copyOf(chestIds, size);
+        chestX = Arrays.copyOf(chestX, size);
+        chestY = Arrays.copyOf(chestY, size);
+        chestItemKinds = Arrays.copyOf(chestItemKinds, size * inventorySize);
+        chestItemIds = Arrays.copyOf(chestItemIds, size * inventorySize);
+        chestItemBonuses = Arrays.copyOf(chestItemBonuses, size * inventorySize);
+        isChestItemSelected = Arrays.copyOf(isChestItemSelected, size * inventorySize);
+    }
+
+    private short stringIndex(String string) {
+        Short index = stringIndexes.get(string);
+        if (index == null) {
+            if (strings.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many different ids to save " + string);
+            }
+            index = (short) strings.size();
+            strings.add(string);
+            stringIndexes.put(string, index);
+        }
+        return index;
+    }
+
+    private void captureItem(Item item, int slot, byte[] kinds, short[] ids, int[] bonuses, boolean[] isSelected) {
+        if (item instanceof Weapon) {
+            kinds[slot] = weapon;
+            bonuses[slot] = (int) ((Weapon) item).getAtk();
+        } else if (item instanceof Armor) {
+            kinds[slot] = armor;
+            bonuses[slot] = (int) ((Armor) item).getDef();
+        } else {
+            kinds[slot] = emptySlot;
+            return;
+        }
+        ids[slot] = stringIndex(item.getId());
+        isSelected[slot] = item.getIsItemSelected();
+    }
+
+    private Item toItem(int slot, byte[] kinds, short[] ids, int[] bonuses, boolean[] isSelected) {
+        Item item;
+        switch (kinds[slot]) {
+            case weapon:
+                item = new Weapon(strings.get(ids[slot]), bonuses[slot]);
+                break;
+            case armor:
+                item = new Armor(strings.get(ids[slot]), bonuses[slot]);
+                break;
+            default:
+                return null;
+        }
+        if (isSelected[slot]) {
+            item.setToSelected();
+        }
+        return item;
+    }
+
+    private static void putItem(ByteBuffer buffer, int slot, byte[] kinds, short[] ids, int[] bonuses, boolean[] isSelected) {
+        buffer.put(kinds[slot]).putShort(ids[slot]).putInt(bonuses[slot]).put((byte) (isSelected[slot] ? 1 : 0));
+    }
+
+    private static void getItem(ByteBuffer buffer, int slot, byte[] kinds, short[] ids, int[] bonuses, boolean[] isSelected) {
+        kinds[slot] = buffer.get();
+        ids[slot] = buffer.getShort();
+        bonuses[slot] = buffer.getInt();
+        isSelected[slot] = buffer.get() != 0;
+    }
+}
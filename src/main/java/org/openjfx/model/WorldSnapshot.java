@@ -0,0 +1,177 @@
+package org.openjfx.model;
+
+import org.openjfx.model.tile.ReadOnlyTileGrid;
+import org.openjfx.model.tile.TileFactory;
+
+/*Immutable copy of everything needed to draw one frame of a World: the Player, the active
+  enemies and chests, the visible tiles and the loaded chunks. Snapshots are published by Model
+  after every update and can be read from any thread while the World keeps changing*/
+
+public final class WorldSnapshot {
+    private final long tick;
+
+    private final String playerId;
+    private final double playerX;
+    private final double playerY;
+    private final int playerHp;
+    private final String[] itemIds;
+    private final boolean[] isItemSelected;
+
+    private final int enemyCount;
+    private final String[] enemyIds;
+    private final double[] enemyX;
+    private final double[] enemyY;
+    private final int[] enemyHp;
+
+    private final int chestCount;
+    private final String[] chestIds;
+    private final double[] chestX;
+    private final double[] chestY;
+
+    private final ReadOnlyTileGrid tiles;
+    private final TileFactory tileFactory;
+    private final int chunkSize;
+    private final int minLoadedChunkX;
+    private final int maxLoadedChunkX;
+    private final int minLoadedChunkY;
+    private final int maxLoadedChunkY;
+
+    WorldSnapshot(World world, long tick) {
+        this.tick = tick;
+
+        Player player = world.getPlayer();
+        playerId = player.getId();
+        playerX = player.getXcoord();
+        playerY = player.getYcoord();
+        playerHp = player.getHp();
+        Item[] inventory = player.getInventory();
+        itemIds = new String[inventory.length];
+        isItemSelected = new boolean[inventory.length];
+        for (int i = 0; i < inventory.length; i++) {
+            if (inventory[i] != null) {
+                itemIds[i] = inventory[i].getId();
+                isItemSelected[i] = inventory[i].getIsItemSelected();
+            }
+        }
+
+        CombatantStore enemies = world.getEnemyStore();
+        enemyCount = enemies.size();
+        enemyIds = new String[enemyCount];
+        enemyX = new double[enemyCount];
+        enemyY = new double[enemyCount];
+        enemyHp = new int[enemyCount];
+        for (int i = 0; i < enemyCount; i++) {
+            enemyIds[i] = enemies.getTypeId(i);
+            enemyX[i] = enemies.getX(i);
+            enemyY[i] = enemies.getY(i);
+            enemyHp[i] = enemies.getHp(i);
+        }
+
+        chestCount = world.getActiveChests().size();
+        chestIds = new String[chestCount];
+        chestX = new double[chestCount];
+        chestY = new double[chestCount];
+        for (int i = 0; i < chestCount; i++) {
+            Chest chest = world.getActiveChests().get(i);
+            chestIds[i] = chest.getId();
+            chestX[i] = chest.getXcoord();
+            chestY[i] = chest.getYcoord();
+        }
+
+        tiles = world.worldGrid.snapshot();
+        tileFactory = world.getTileFactory();
+        chunkSize = world.getChunkSize();
+        minLoadedChunkX = world.minLoadedChunk(playerX);
+        maxLoadedChunkX = world.maxLoadedChunk(playerX);
+        minLoadedChunkY = world.minLoadedChunk(playerY);
+        maxLoadedChunkY = world.maxLoadedChunk(playerY);
+    }
+
+    //Number of the Model update this snapshot was taken at
+    public long getTick() {
+        return tick;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public double getPlayerX() {
+        return playerX;
+    }
+
+    public double getPlayerY() {
+        return playerY;
+    }
+
+    public int getPlayerHp() {
+        return playerHp;
+    }
+
+    public int getInventorySize() {
+        return itemIds.length;
+    }
+
+    //Returns null for empty inventory slots
+    public String getItemId(int index) {
+        return itemIds[index];
+    }
+
+    public boolean isItemSelected(int index) {
+        return isItemSelected[index];
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    public String getEnemyId(int index) {
+        return enemyIds[index];
+    }
+
+    public double getEnemyX(int index) {
+        return enemyX[index];
+    }
+
+    public double getEnemyY(int index) {
+        return enemyY[index];
+    }
+
+    public int getEnemyHp(int index) {
+        return enemyHp[index];
+    }
+
+    public int getChestCount() {
+        return chestCount;
+    }
+
+    public String getChestId(int index) {
+        return chestIds[index];
+    }
+
+    public double getChestX(int index) {
+        return chestX[index];
+    }
+
+    public double getChestY(int index) {
+        return chestY[index];
+    }
+
+    public ReadOnlyTileGrid getTiles() {
+        return tiles;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public boolean isChunkLoaded(int chunkX, int chunkY) {
+        return chunkX >= minLoadedChunkX && chunkX <= maxLoadedChunkX
+            && chunkY >= minLoadedChunkY && chunkY <= maxLoadedChunkY;
+    }
+
+    //Terrain never changes, so any chunk can be generated from the snapshot on any thread
+    public void fillTerrainChunk(int chunkX, int chunkY, byte[] out) {
+        tileFactory.fillChunk(out, chunkX * chunkSize, chunkY * chunkSize, chunkSize, chunkSize);
+    }
+}
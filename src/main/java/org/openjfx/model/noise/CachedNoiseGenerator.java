@@ -0,0 +1,107 @@
+package org.openjfx.model.noise;
+
+import org.openjfx.model.Coordinates;
+
+/*Caches the values of another NoiseGenerator for whole-number coordinates, so walking back and
+  forth over the same tiles does not evaluate the noise again. The cache holds a fixed number of
+  values in sets of four slots, when a set is full the value to replace is picked by a clock hand
+  that skips values which have been read since it last passed them. The cache is shared by the
+  simulation and the renderer, so every method touching the cached values or counters is synchronized*/
+
+public class CachedNoiseGenerator implements NoiseGenerator {
+    private static final int ways = 4;
+    private static final int defaultCapacity = 8192;
+
+    private final NoiseGenerator noiseGenerator;
+    private final int setMask;
+    private final long[] keys;
+    private final double[] values;
+    private final boolean[] isUsed;
+    private final boolean[] isReferenced;
+    private final byte[] clockHands;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public CachedNoiseGenerator(NoiseGenerator noiseGenerator) {
+        this(noiseGenerator, defaultCapacity);
+    }
+
+    //int capacity is rounded up to a power of two of at least four values
+    public CachedNoiseGenerator(NoiseGenerator noiseGenerator, int capacity) {
+        this.noiseGenerator = noiseGenerator;
+        int sets = 1;
+        while (sets * ways < capacity) {
+            sets <<= 1;
+        }
+        setMask = sets - 1;
+        keys = new long[sets * ways];
+        values = new double[sets * ways];
+        isUsed = new boolean[sets * ways];
+        isReferenced = new boolean[sets * ways];
+        clockHands = new byte[sets];
+    }
+
+    public synchronized double getValue(double xCoord, double yCoord) {
+        final int x = (int) xCoord;
+        final int y = (int) yCoord;
+        if (x != xCoord || y != yCoord) {
+            return noiseGenerator.getValue(xCoord, yCoord);
+        }
+
+        final long key = Coordinates.pack(x, y);
+        final int set = setOf(key);
+        final int first = set * ways;
+        for (int slot = first; slot < first + ways; slot++) {
+            if (isUsed[slot] && keys[slot] == key) {
+                isReferenced[slot] = true;
+                hits++;
+                return values[slot];
+            }
+        }
+
+        misses++;
+        final double value = noiseGenerator.getValue(xCoord, yCoord);
+        final int slot = victim(set);
+        keys[slot] = key;
+        values[slot] = value;
+        isUsed[slot] = true;
+        isReferenced[slot] = false;
+        return value;
+    }
+
+    //Advances the clock hand of the set until it points at a free or not recently read slot
+    private int victim(int set) {
+        final int first = set * ways;
+        while (true) {
+            int slot = first + clockHands[set];
+            clockHands[set] = (byte) ((clockHands[set] + 1) % ways);
+            if (!isUsed[slot] || !isReferenced[slot]) {
+                return slot;
+            }
+            isReferenced[slot] = false;
+        }
+    }
+
+    private int setOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40) & setMask;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -1,9 +1,21 @@
 package org.openjfx.model.noise;
 
-import java.util.Random;
+import org.openjfx.utils.random.RandomStreams;
 
+//White noise, the value of a position only depends on the seed and the position
 public class DefaultNoiseGenerator implements NoiseGenerator {
+    private final long seed;
+
+    public DefaultNoiseGenerator() {
+        this(RandomStreams.randomSeed());
+    }
+
+    public DefaultNoiseGenerator(long seed) {
+        this.seed = seed;
+    }
+
     public double getValue(double xCoord, double yCoord) {
-        return new Random().nextDouble() % 1.0;
+        return RandomStreams.unitDouble(RandomStreams.derive(seed,
+                Double.doubleToLongBits(xCoord), Double.doubleToLongBits(yCoord)));
     }
 }
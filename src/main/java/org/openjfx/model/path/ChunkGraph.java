@@ -0,0 +1,268 @@
+package org.openjfx.model.path;
+
+import org.openjfx.model.Coordinates;
+import org.openjfx.model.tile.TileFactory;
+import org.openjfx.model.tile.TileType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*Abstract graph of one chunk for the HierarchicalPathfinder. Where free tiles on the border of the chunk
+  touch free tiles of the neighbouring chunk the chunk gets portals, one in the middle of a short opening
+  and one at each end of a long one. Both chunks of a border pick the same portal tiles, as they look at
+  the same two lines of tiles, so a portal links to the portal right across the border.
+  The costs between the portals are the lengths of the shortest paths between them inside the chunk*/
+
+final class ChunkGraph {
+    //Openings at least this long get a portal at each end instead of one in the middle
+    private static final int longOpening = 6;
+
+    private final int minX;
+    private final int minY;
+    private final int side;
+    private final boolean[] isSolid;
+    //Portal tiles packed with Coordinates.pack
+    private final long[] portals;
+    //Per portal the tiles across the border it leads to
+    private final long[][] links;
+    //costs[from * portals.length + to], -1 if the portals are not connected inside the chunk
+    private final int[] costs;
+
+    private ChunkGraph(int minX, int minY, int side, boolean[] isSolid, Map<Long, List<Long>> portalLinks) {
+        this.minX = minX;
+        this.minY = minY;
+        this.side = side;
+        this.isSolid = isSolid;
+        portals = new long[portalLinks.size()];
+        links = new long[portals.length][];
+        int p = 0;
+        for (Map.Entry<Long, List<Long>> portal : portalLinks.entrySet()) {
+            portals[p] = portal.getKey();
+            links[p] = new long[portal.getValue().size()];
+            for (int i = 0; i < links[p].length; i++) {
+                links[p][i] = portal.getValue().get(i);
+            }
+            p++;
+        }
+        costs = new int[portals.length * portals.length];
+        for (int from = 0; from < portals.length; from++) {
+            int[] distances = distancesFrom(Coordinates.unpackX(portals[from]), Coordinates.unpackY(portals[from]));
+            for (int to = 0; to < portals.length; to++) {
+                costs[from * portals.length + to] = distances[localIndex(portals[to])];
+            }
+        }
+    }
+
+    //Generates the tiles of chunk int chunkX, int chunkY and the border lines of its neighbours with TileFactory tileFactory
+    static ChunkGraph build(TileFactory tileFactory, int chunkX, int chunkY, int side) {
+        final int minX = chunkX * side;
+        final int minY = chunkY * side;
+        byte[] tiles = new byte[side * side];
+        tileFactory.fillChunk(tiles, minX, minY, side, side);
+        boolean[] isSolid = new boolean[side * side];
+        for (int i = 0; i < tiles.length; i++) {
+            isSolid[i] = TileType.byId(tiles[i]).isSolid();
+        }
+
+        Map<Long, List<Long>> portalLinks = new LinkedHashMap<>();
+        byte[] neighbour = new byte[side];
+        byte[] own = new byte[side];
+        // Above, below, left of and right of the chunk
+        tileFactory.fillRow(neighbour, 0, minX, minY - 1, side);
+        System.arraycopy(tiles, 0, own, 0, side);
+        addPortals(portalLinks, own, neighbour, minX, minY, 1, 0, 0, -1);
+        tileFactory.fillRow(neighbour, 0, minX, minY + side, side);
+        System.arraycopy(tiles, (side - 1) * side, own, 0, side);
+        addPortals(portalLinks, own, neighbour, minX, minY + side - 1, 1, 0, 0, 1);
+        tileFactory.fillColumn(neighbour, 0, minX - 1, minY, side);
+        for (int row = 0; row < side; row++) {
+            own[row] = tiles[row * side];
+        }
+        addPortals(portalLinks, own, neighbour, minX, minY, 0, 1, -1, 0);
+        tileFactory.fillColumn(neighbour, 0, minX + side, minY, side);
+        for (int row = 0; row < side; row++) {
+            own[row] = tiles[row * side + side - 1];
+        }
+        addPortals(portalLinks, own, neighbour, minX + side - 1, minY, 0, 1, 1, 0);
+        return new ChunkGraph(minX, minY, side, isSolid, portalLinks);
+    }
+
+    /*Adds the portals of one border. The line of own tiles starts at startX, startY and goes in steps of
+      stepX, stepY, the neighbour tile of each own tile lies crossX, crossY away from it*/
+
+    private static void addPortals(Map<Long, List<Long>> portalLinks, byte[] own, byte[] neighbour,
+                                   int startX, int startY, int stepX, int stepY, int crossX, int crossY) {
+        int i = 0;
+        while (i < own.length) {
+            if (TileType.byId(own[i]).isSolid() || TileType.byId(neighbour[i]).isSolid()) {
+                i++;
+                continue;
+            }
+            final int first = i;
+            while (i < own.length && !TileType.byId(own[i]).isSolid() && !TileType.byId(neighbour[i]).isSolid()) {
+                i++;
+            }
+            final int last = i - 1;
+            if (last - first + 1 >= longOpening) {
+                addPortal(portalLinks, startX + first * stepX, startY + first * stepY, crossX, crossY);
+                addPortal(portalLinks, startX + last * stepX, startY + last * stepY, crossX, crossY);
+            } else {
+                final int middle = first + (last - first) / 2;
+                addPortal(portalLinks, startX + middle * stepX, startY + middle * stepY, crossX, crossY);
+            }
+        }
+    }
+
+    private static void addPortal(Map<Long, List<Long>> portalLinks, int x, int y, int crossX, int crossY) {
+        portalLinks.computeIfAbsent(Coordinates.pack(x, y), key -> new ArrayList<>(2))
+                .add(Coordinates.pack(x + crossX, y + crossY));
+    }
+
+    int getPortalCount() {
+        return portals.length;
+    }
+
+    long getPortal(int portal) {
+        return portals[portal];
+    }
+
+    long[] getLinks(int portal) {
+        return links[portal];
+    }
+
+    //Length of the shortest path between two portals inside the chunk, -1 if there is none
+    int getCost(int from, int to) {
+        return costs[from * portals.length + to];
+    }
+
+    //Index of the portal on long tile, -1 if tile is no portal of this chunk
+    int indexOf(long tile) {
+        for (int p = 0; p < portals.length; p++) {
+            if (portals[p] == tile) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    boolean isSolid(int x, int y) {
+        return isSolid[(y - minY) * side + x - minX];
+    }
+
+    //Steps from the tile at int x, int y inside the chunk to each portal, -1 for the ones that can not be reached
+    int[] portalDistancesFrom(int x, int y) {
+        int[] distances = distancesFrom(x, y);
+        int[] portalDistances = new int[portals.length];
+        for (int p = 0; p < portals.length; p++) {
+            portalDistances[p] = distances[localIndex(portals[p])];
+        }
+        return portalDistances;
+    }
+
+    /*Shortest path inside the chunk from the tile at int fromX, int fromY to the tile at int toX, int toY,
+      both tiles included, or null if the chunk has none*/
+
+    List<Coordinates> localPath(int fromX, int fromY, int toX, int toY) {
+        final int cells = side * side;
+        int[] previous = new int[cells];
+        Arrays.fill(previous, -1);
+        int[] queue = new int[cells];
+        final int start = (fromY - minY) * side + fromX - minX;
+        final int goal = (toY - minY) * side + toX - minX;
+        if (isSolid[start] || isSolid[goal]) {
+            return null;
+        }
+        int head = 0;
+        int tail = 0;
+        previous[start] = start;
+        queue[tail++] = start;
+        while (head < tail && previous[goal] < 0) {
+            final int cell = queue[head++];
+            final int column = cell % side;
+            final int row = cell / side;
+            if (column > 0) {
+                tail = visit(previous, queue, tail, cell, cell - 1);
+            }
+            if (column < side - 1) {
+                tail = visit(previous, queue, tail, cell, cell + 1);
+            }
+            if (row > 0) {
+                tail = visit(previous, queue, tail, cell, cell - side);
+            }
+            if (row < side - 1) {
+                tail = visit(previous, queue, tail, cell, cell + side);
+            }
+        }
+        if (previous[goal] < 0) {
+            return null;
+        }
+        List<Coordinates> path = new ArrayList<>();
+        for (int cell = goal; cell != start; cell = previous[cell]) {
+            path.add(new Coordinates(minX + cell % side, minY + cell / side));
+        }
+        path.add(new Coordinates(fromX, fromY));
+        Collections.reverse(path);
+        return path;
+    }
+
+    private int visit(int[] previous, int[] queue, int tail, int from, int cell) {
+        if (previous[cell] >= 0 || isSolid[cell]) {
+            return tail;
+        }
+        previous[cell] = from;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    //Breadth first steps from the tile at int x, int y to every tile of the chunk, -1 where it can not get
+    private int[] distancesFrom(int x, int y) {
+        final int cells = side * side;
+        int[] distances = new int[cells];
+        Arrays.fill(distances, -1);
+        final int start = (y - minY) * side + x - minX;
+        if (isSolid[start]) {
+            return distances;
+        }
+        int[] queue = new int[cells];
+        int head = 0;
+        int tail = 0;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            final int cell = queue[head++];
+            final int column = cell % side;
+            final int row = cell / side;
+            final int next = distances[cell] + 1;
+            if (column > 0) {
+                tail = reach(distances, queue, tail, cell - 1, next);
+            }
+            if (column < side - 1) {
+                tail = reach(distances, queue, tail, cell + 1, next);
+            }
+            if (row > 0) {
+                tail = reach(distances, queue, tail, cell - side, next);
+            }
+            if (row < side - 1) {
+                tail = reach(distances, queue, tail, cell + side, next);
+            }
+        }
+        return distances;
+    }
+
+    private int reach(int[] distances, int[] queue, int tail, int cell, int distance) {
+        if (distances[cell] >= 0 || isSolid[cell]) {
+            return tail;
+        }
+        distances[cell] = distance;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    private int localIndex(long tile) {
+        return (Coordinates.unpackY(tile) - minY) * side + Coordinates.unpackX(tile) - minX;
+    }
+}
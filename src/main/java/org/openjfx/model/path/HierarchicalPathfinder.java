@@ -0,0 +1,213 @@
+package org.openjfx.model.path;
+
+import org.openjfx.model.Coordinates;
+import org.openjfx.model.tile.TileFactory;
+import org.openjfx.utils.collection.LongHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/*Finds paths over the terrain of TileFactory output across any number of chunks (HPA*).
+  Every chunk is reduced to a ChunkGraph of portals on its borders, built the first time a search reaches
+  it and kept in a cache of the most recently used chunks. A search first runs A* over the portals,
+  from the start tile to the portals of its chunk and from the portals of the goal chunk to the goal tile,
+  and then refines each step of that abstract path into tiles inside a single chunk.
+  The paths are close to, but not always exactly, the shortest ones. Not thread safe*/
+
+public class HierarchicalPathfinder {
+    private final TileFactory tileFactory;
+    private final int chunkSize;
+    //Chunks further than this outside the chunks of the start and goal tiles are not searched
+    private final int searchMargin;
+    private final Map<Long, ChunkGraph> graphs;
+
+    public HierarchicalPathfinder(TileFactory tileFactory, int chunkSize, int cachedChunks, int searchMargin) {
+        this.tileFactory = tileFactory;
+        this.chunkSize = chunkSize;
+        this.searchMargin = searchMargin;
+        graphs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ChunkGraph> eldest) {
+                return size() > cachedChunks;
+            }
+        };
+    }
+
+    /*Returns the tiles of a path from the tile at int startX, int startY to the tile at int goalX, int goalY,
+      both included, every tile sharing a side with the one before. Empty if there is no path within the
+      searched chunks*/
+
+    public List<Coordinates> findPath(int startX, int startY, int goalX, int goalY) {
+        final ChunkGraph startGraph = graphOf(startX, startY);
+        final ChunkGraph goalGraph = graphOf(goalX, goalY);
+        if (startGraph.isSolid(startX, startY) || goalGraph.isSolid(goalX, goalY)) {
+            return Collections.emptyList();
+        }
+        if (chunkKeyOf(startX, startY) == chunkKeyOf(goalX, goalY)) {
+            List<Coordinates> local = startGraph.localPath(startX, startY, goalX, goalY);
+            if (local != null) {
+                return local;
+            }
+        }
+
+        List<Long> abstractPath = searchPortals(startX, startY, goalX, goalY, startGraph, goalGraph);
+        if (abstractPath == null) {
+            return Collections.emptyList();
+        }
+
+        List<Coordinates> path = new ArrayList<>();
+        path.add(new Coordinates(startX, startY));
+        for (int i = 1; i < abstractPath.size(); i++) {
+            final long from = abstractPath.get(i - 1);
+            final long to = abstractPath.get(i);
+            final int fromX = Coordinates.unpackX(from);
+            final int fromY = Coordinates.unpackY(from);
+            final int toX = Coordinates.unpackX(to);
+            final int toY = Coordinates.unpackY(to);
+            if (chunkKeyOf(fromX, fromY) == chunkKeyOf(toX, toY)) {
+                List<Coordinates> local = graphOf(fromX, fromY).localPath(fromX, fromY, toX, toY);
+                path.addAll(local.subList(1, local.size()));
+            } else {
+                // Across a border, the tiles are neighbours
+                path.add(new Coordinates(toX, toY));
+            }
+        }
+        return path;
+    }
+
+    public int getCachedChunkCount() {
+        return graphs.size();
+    }
+
+    //A* over the portals, returns the tiles of the abstract path from start to goal or null
+    private List<Long> searchPortals(int startX, int startY, int goalX, int goalY, ChunkGraph startGraph, ChunkGraph goalGraph) {
+        final long start = Coordinates.pack(startX, startY);
+        final long goal = Coordinates.pack(goalX, goalY);
+        final int minChunkX = Math.min(chunkOf(startX), chunkOf(goalX)) - searchMargin;
+        final int maxChunkX = Math.max(chunkOf(startX), chunkOf(goalX)) + searchMargin;
+        final int minChunkY = Math.min(chunkOf(startY), chunkOf(goalY)) - searchMargin;
+        final int maxChunkY = Math.max(chunkOf(startY), chunkOf(goalY)) + searchMargin;
+        final int[] startDistances = startGraph.portalDistancesFrom(startX, startY);
+        final int[] goalDistances = goalGraph.portalDistancesFrom(goalX, goalY);
+        // Chunks are compared by key, a graph can be dropped from the cache and rebuilt during the search
+        final long goalChunk = chunkKeyOf(goalX, goalY);
+
+        LongHashMap<Node> nodes = new LongHashMap<>();
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        Node first = new Node(start, 0, estimate(startX, startY, goalX, goalY), null);
+        nodes.put(start, first);
+        open.add(first);
+
+        while (!open.isEmpty()) {
+            final Node node = open.poll();
+            if (node.isClosed) {
+                continue;
+            }
+            node.isClosed = true;
+            if (node.tile == goal) {
+                List<Long> tiles = new ArrayList<>();
+                for (Node n = node; n != null; n = n.previous) {
+                    tiles.add(n.tile);
+                }
+                Collections.reverse(tiles);
+                return tiles;
+            }
+
+            final int x = Coordinates.unpackX(node.tile);
+            final int y = Coordinates.unpackY(node.tile);
+            if (node.tile == start) {
+                for (int p = 0; p < startDistances.length; p++) {
+                    if (startDistances[p] >= 0) {
+                        reach(nodes, open, node, startGraph.getPortal(p), startDistances[p], goalX, goalY);
+                    }
+                }
+            }
+            // The start tile can be a portal too
+            final ChunkGraph graph = graphOf(x, y);
+            final int portal = graph.indexOf(node.tile);
+            if (portal < 0) {
+                continue;
+            }
+            for (int p = 0; p < graph.getPortalCount(); p++) {
+                final int cost = graph.getCost(portal, p);
+                if (p != portal && cost >= 0) {
+                    reach(nodes, open, node, graph.getPortal(p), cost, goalX, goalY);
+                }
+            }
+            for (long link : graph.getLinks(portal)) {
+                final int linkChunkX = chunkOf(Coordinates.unpackX(link));
+                final int linkChunkY = chunkOf(Coordinates.unpackY(link));
+                if (linkChunkX >= minChunkX && linkChunkX <= maxChunkX && linkChunkY >= minChunkY && linkChunkY <= maxChunkY) {
+                    reach(nodes, open, node, link, 1, goalX, goalY);
+                }
+            }
+            if (chunkKeyOf(x, y) == goalChunk && goalDistances[portal] >= 0) {
+                reach(nodes, open, node, goal, goalDistances[portal], goalX, goalY);
+            }
+        }
+        return null;
+    }
+
+    private void reach(LongHashMap<Node> nodes, PriorityQueue<Node> open, Node from, long tile, int cost, int goalX, int goalY) {
+        final int distance = from.distance + cost;
+        Node node = nodes.get(tile);
+        if (node != null && (node.isClosed || node.distance <= distance)) {
+            return;
+        }
+        if (node != null) {
+            // The queue can not update priorities, the old entry is skipped once it is polled
+            node.isClosed = true;
+        }
+        node = new Node(tile, distance, distance + estimate(Coordinates.unpackX(tile), Coordinates.unpackY(tile), goalX, goalY), from);
+        nodes.put(tile, node);
+        open.add(node);
+    }
+
+    private static int estimate(int x, int y, int goalX, int goalY) {
+        return Math.abs(goalX - x) + Math.abs(goalY - y);
+    }
+
+    private ChunkGraph graphOf(int x, int y) {
+        final int chunkX = chunkOf(x);
+        final int chunkY = chunkOf(y);
+        final long key = Coordinates.pack(chunkX, chunkY);
+        ChunkGraph graph = graphs.get(key);
+        if (graph == null) {
+            graph = ChunkGraph.build(tileFactory, chunkX, chunkY, chunkSize);
+            graphs.put(key, graph);
+        }
+        return graph;
+    }
+
+    private long chunkKeyOf(int x, int y) {
+        return Coordinates.pack(chunkOf(x), chunkOf(y));
+    }
+
+    private int chunkOf(int coord) {
+        return Math.floorDiv(coord, chunkSize);
+    }
+
+    private static final class Node implements Comparable<Node> {
+        final long tile;
+        final int distance;
+        final int estimate;
+        final Node previous;
+        boolean isClosed = false;
+
+        Node(long tile, int distance, int estimate, Node previous) {
+            this.tile = tile;
+            this.distance = distance;
+            this.estimate = estimate;
+            this.previous = previous;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            return Integer.compare(estimate, other.estimate);
+        }
+    }
+}
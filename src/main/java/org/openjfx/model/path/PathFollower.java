@@ -0,0 +1,59 @@
+package org.openjfx.model.path;
+
+import org.openjfx.model.Combatant;
+import org.openjfx.model.Coordinates;
+import org.openjfx.model.Movable;
+
+import java.util.List;
+
+/*Walks a Combatant along a path of tiles, such as one found by HierarchicalPathfinder, through
+  Combatant.move. The Combatant heads for the corner of each tile of the path in turn and moves along
+  one axis at a time, so it never cuts the corner of a solid tile next to the path*/
+
+public class PathFollower {
+    private final List<Coordinates> path;
+    private int next = 0;
+
+    public PathFollower(List<Coordinates> path) {
+        this.path = path;
+    }
+
+    /*Skips the tiles of the path that a Combatant at double x, double y moving double speed per step has
+      reached and returns the next one, or null once the whole path is walked*/
+
+    public Coordinates nextWaypoint(double x, double y, double speed) {
+        while (next < path.size()) {
+            Coordinates waypoint = path.get(next);
+            if (Math.abs(waypoint.getxCoord() - x) > speed / 2 || Math.abs(waypoint.getyCoord() - y) > speed / 2) {
+                return waypoint;
+            }
+            next++;
+        }
+        return null;
+    }
+
+    //Moves Combatant combatant one step along the path, returns false once it has reached the end
+    public boolean step(Combatant combatant) {
+        final double x = combatant.getXcoord();
+        final double y = combatant.getYcoord();
+        final double margin = combatant.getMoveSpeed() / 2;
+        Coordinates waypoint = nextWaypoint(x, y, combatant.getMoveSpeed());
+        if (waypoint == null) {
+            return false;
+        }
+        if (waypoint.getxCoord() + margin < x) {
+            combatant.move(Movable.Direction.LEFT);
+        } else if (waypoint.getxCoord() - margin > x) {
+            combatant.move(Movable.Direction.RIGHT);
+        } else if (waypoint.getyCoord() + margin < y) {
+            combatant.move(Movable.Direction.UP);
+        } else {
+            combatant.move(Movable.Direction.DOWN);
+        }
+        return true;
+    }
+
+    public boolean isFinished() {
+        return next >= path.size();
+    }
+}
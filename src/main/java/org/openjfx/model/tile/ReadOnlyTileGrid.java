@@ -0,0 +1,13 @@
+package org.openjfx.model.tile;
+
+/*Indexed read-only access to a grid of tiles, column 0 row 0 is the tile at getMinX(), getMinY()
+  and the tile at column, row lies at getMinX() + column, getMinY() + row*/
+
+public interface ReadOnlyTileGrid {
+    TileType get(int column, int row);
+    byte getTypeId(int column, int row);
+    int getColumns();
+    int getRows();
+    int getMinX();
+    int getMinY();
+}
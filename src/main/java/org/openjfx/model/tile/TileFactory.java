@@ -1,35 +1,71 @@
 package org.openjfx.model.tile;
 
-import javafx.util.Pair;
 import org.openjfx.model.noise.NoiseGenerator;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class TileFactory {
-    private final List<Pair<String, Double>> tileTypes = new ArrayList<>();
+    private final List<Map.Entry<TileType, Double>> tileTypes = new ArrayList<>();
     private NoiseGenerator noiseGenerator;
 
+    //typeIds[i] is picked for noise values above thresholds[i - 1] and up to thresholds[i]
+    private final byte[] typeIds;
+    private final double[] thresholds;
+
     public TileFactory(NoiseGenerator ng) {
         this.noiseGenerator = ng;
 
-        tileTypes.add(new Pair<>("Grass", 0.4));
-        tileTypes.add(new Pair<>("Lava",0.01));
-        tileTypes.add(new Pair<>("Mountain", 0.08));
+        tileTypes.add(new AbstractMap.SimpleImmutableEntry<>(TileType.GRASS, 0.4));
+        tileTypes.add(new AbstractMap.SimpleImmutableEntry<>(TileType.LAVA,0.01));
+        tileTypes.add(new AbstractMap.SimpleImmutableEntry<>(TileType.MOUNTAIN, 0.08));
         double remainingChance = 1 - tileTypes.stream().map(x -> x.getValue()).reduce(0.0, (acc, x) -> acc + x);
-        tileTypes.add(new Pair<>("Grass", remainingChance));
+        tileTypes.add(new AbstractMap.SimpleImmutableEntry<>(TileType.GRASS, remainingChance));
+
+        typeIds = new byte[tileTypes.size()];
+        thresholds = new double[tileTypes.size()];
+        double cumulativeChance = 0.0;
+        for (int i = 0; i < tileTypes.size(); i++) {
+            cumulativeChance += tileTypes.get(i).getValue();
+            typeIds[i] = tileTypes.get(i).getKey().getId();
+            thresholds[i] = cumulativeChance;
+        }
+        thresholds[thresholds.length - 1] = Double.MAX_VALUE; // So rounding in the sum never leaves a value without a tile
     }
 
-    public Tile generateTile(double x, double y) {
-        double tileValue = noiseGenerator.getValue((int) x, (int) y);
-        double prevVal = 0.0;
-        for(int i = 0; i < tileTypes.size(); i++) {
-            if(prevVal < tileValue && tileValue <= tileTypes.get(i).getValue() + prevVal) {
-                return new Tile(tileTypes.get(i).getKey(), x, y);
-            }
-            prevVal += tileTypes.get(i).getValue();
+    public TileType generateTile(double x, double y) {
+        return TileType.byId(typeIdAt((int) x, (int) y));
+    }
+
+    //Fills out[offset] to out[offset + length - 1] with the tile type ids from minX to minX + length - 1 on row y
+    public void fillRow(byte[] out, int offset, int minX, int y, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = typeIdAt(minX + i, y);
         }
+    }
 
-        return null;
+    //Fills out[offset] to out[offset + length - 1] with the tile type ids from minY to minY + length - 1 on column x
+    public void fillColumn(byte[] out, int offset, int x, int minY, int length) {
+        for (int i = 0; i < length; i++) {
+            out[offset + i] = typeIdAt(x, minY + i);
+        }
+    }
+
+    //Fills out row by row with the tile type ids of the int width by int height tiles starting at minX, minY
+    public void fillChunk(byte[] out, int minX, int minY, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            fillRow(out, row * width, minX, minY + row, width);
+        }
+    }
+
+    private byte typeIdAt(int x, int y) {
+        double tileValue = noiseGenerator.getValue(x, y);
+        int i = 0;
+        while (tileValue > thresholds[i]) {
+            i++;
+        }
+        return typeIds[i];
     }
 }
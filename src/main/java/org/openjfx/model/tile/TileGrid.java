@@ -0,0 +1,131 @@
+package org.openjfx.model.tile;
+
+/*Fixed size grid of tiles around a moving origin, stored as a flat ring buffer of TileType ids.
+  Scrolling the grid only generates the tiles of the columns or rows that come into it,
+  they overwrite the tiles that left the grid on the opposite side*/
+
+public class TileGrid implements ReadOnlyTileGrid {
+    private final TileFactory tileFactory;
+    private final int columns;
+    private final int rows;
+    private final byte[] tiles;
+    private final byte[] generatedColumn;
+    private final byte[] generatedRow;
+
+    //Position in tiles of the buffer slot holding column 0 and row 0
+    private int originColumn = 0;
+    private int originRow = 0;
+
+    //World coordinates of column 0 and row 0
+    private int minX;
+    private int minY;
+
+    public TileGrid(TileFactory tileFactory, int columns, int rows, int minX, int minY) {
+        this.tileFactory = tileFactory;
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = new byte[columns * rows];
+        this.generatedColumn = new byte[rows];
+        this.generatedRow = new byte[columns];
+        this.minX = minX;
+        this.minY = minY;
+        fill();
+    }
+
+    public TileType get(int column, int row) {
+        return TileType.byId(tiles[index(column, row)]);
+    }
+
+    public byte getTypeId(int column, int row) {
+        return tiles[index(column, row)];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    //Copies the grid into an immutable snapshot with the ring buffer unrolled
+    public TileGridSnapshot snapshot() {
+        byte[] copy = new byte[tiles.length];
+        for (int row = 0; row < rows; row++) {
+            final int rowStart = index(0, row);
+            final int wrapped = columns - originColumn;
+            System.arraycopy(tiles, rowStart, copy, row * columns, wrapped);
+            System.arraycopy(tiles, rowStart - originColumn, copy, row * columns + wrapped, originColumn);
+        }
+        return new TileGridSnapshot(copy, columns, rows, minX, minY);
+    }
+
+    /*Moves the grid so column 0 row 0 is at int newMinX, int newMinY. Each step of one tile
+      regenerates one column or row, a jump larger than the grid regenerates every tile once*/
+
+    public void scrollTo(int newMinX, int newMinY) {
+        if (Math.abs(newMinX - minX) >= columns || Math.abs(newMinY - minY) >= rows) {
+            minX = newMinX;
+            minY = newMinY;
+            originColumn = 0;
+            originRow = 0;
+            fill();
+            return;
+        }
+        while (minX < newMinX) {
+            minX++;
+            originColumn = (originColumn + 1) % columns;
+            generateColumn(columns - 1);
+        }
+        while (minX > newMinX) {
+            minX--;
+            originColumn = (originColumn + columns - 1) % columns;
+            generateColumn(0);
+        }
+        while (minY < newMinY) {
+            minY++;
+            originRow = (originRow + 1) % rows;
+            generateRow(rows - 1);
+        }
+        while (minY > newMinY) {
+            minY--;
+            originRow = (originRow + rows - 1) % rows;
+            generateRow(0);
+        }
+    }
+
+    //Only used while originColumn and originRow are 0, so grid and buffer positions are the same
+    private void fill() {
+        tileFactory.fillChunk(tiles, minX, minY, columns, rows);
+    }
+
+    private void generateColumn(int column) {
+        tileFactory.fillColumn(generatedColumn, 0, minX + column, minY, rows);
+        for (int row = 0; row < rows; row++) {
+            tiles[index(column, row)] = generatedColumn[row];
+        }
+    }
+
+    //The buffer row of a grid row is contiguous, only the columns wrap around at the end of the buffer row
+    private void generateRow(int row) {
+        tileFactory.fillRow(generatedRow, 0, minX, minY + row, columns);
+        final int rowStart = index(0, row);
+        final int wrapped = columns - originColumn;
+        System.arraycopy(generatedRow, 0, tiles, rowStart, wrapped);
+        System.arraycopy(generatedRow, wrapped, tiles, rowStart - originColumn, originColumn);
+    }
+
+    private int index(int column, int row) {
+        int bufferColumn = (originColumn + column) % columns;
+        int bufferRow = (originRow + row) % rows;
+        return bufferRow * columns + bufferColumn;
+    }
+}
@@ -0,0 +1,42 @@
+package org.openjfx.model.tile;
+
+//Immutable copy of the tile type ids of a tile grid, stored row by row
+public final class TileGridSnapshot implements ReadOnlyTileGrid {
+    private final byte[] tiles;
+    private final int columns;
+    private final int rows;
+    private final int minX;
+    private final int minY;
+
+    TileGridSnapshot(byte[] tiles, int columns, int rows, int minX, int minY) {
+        this.tiles = tiles;
+        this.columns = columns;
+        this.rows = rows;
+        this.minX = minX;
+        this.minY = minY;
+    }
+
+    public TileType get(int column, int row) {
+        return TileType.byId(tiles[row * columns + column]);
+    }
+
+    public byte getTypeId(int column, int row) {
+        return tiles[row * columns + column];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+}
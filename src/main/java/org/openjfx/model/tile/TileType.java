@@ -0,0 +1,38 @@
+package org.openjfx.model.tile;
+
+/*The kinds of tiles the world is made of. Every cell of a tile grid only stores the byte id
+  of its TileType, the properties shared by all tiles of a kind are kept here once*/
+
+public enum TileType {
+    GRASS("Grass", false),
+    LAVA("Lava", true),
+    MOUNTAIN("Mountain", true);
+
+    private static final TileType[] byId = values();
+
+    //Describes what sprite the tile is drawn with
+    private final String spriteId;
+    //Describes if the tile can be moved through
+    private final boolean isSolid;
+
+    TileType(String spriteId, boolean isSolid) {
+        this.spriteId = spriteId;
+        this.isSolid = isSolid;
+    }
+
+    public byte getId() {
+        return (byte) ordinal();
+    }
+
+    public String getSpriteId() {
+        return spriteId;
+    }
+
+    public boolean isSolid() {
+        return isSolid;
+    }
+
+    public static TileType byId(byte id) {
+        return byId[id];
+    }
+}
@@ -0,0 +1,135 @@
+package org.openjfx.utils.collection;
+
+import java.util.Arrays;
+
+/*Hash map from primitive long keys to primitive int values, so neither keys nor values are ever boxed.
+  Uses open addressing with linear probing and backward shift deletion, like LongHashMap*/
+
+public class LongIntHashMap {
+    private static final int minCapacity = 16;
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] isUsed;
+    private int mask;
+    private int size = 0;
+
+    public LongIntHashMap() {
+        this(minCapacity);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = minCapacity;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    //Returns the value mapped to long key, or int defaultValue if there is none
+    public int getOrDefault(long key, int defaultValue) {
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, int value) {
+        int slot = slotOf(key);
+        while (isUsed[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        isUsed[slot] = true;
+        if (++size * 2 > isUsed.length) {
+            rehash(isUsed.length * 2);
+        }
+    }
+
+    //Returns false if long key was not mapped
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        isUsed[slot] = false;
+        size--;
+
+        //Moves later entries of the probe sequence back so lookups never stop at the freed slot
+        int free = slot;
+        int next = (slot + 1) & mask;
+        while (isUsed[next]) {
+            int home = slotOf(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                isUsed[free] = true;
+                isUsed[next] = false;
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(isUsed, false);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int find(long key) {
+        int slot = slotOf(key);
+        while (isUsed[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        isUsed = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldIsUsed = isUsed;
+        allocate(capacity);
+        for (int slot = 0; slot < oldIsUsed.length; slot++) {
+            if (oldIsUsed[slot]) {
+                int newSlot = slotOf(oldKeys[slot]);
+                while (isUsed[newSlot]) {
+                    newSlot = (newSlot + 1) & mask;
+                }
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+                isUsed[newSlot] = true;
+            }
+        }
+    }
+}
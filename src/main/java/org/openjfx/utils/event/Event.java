@@ -1,26 +1,105 @@
 package org.openjfx.utils.event;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*Dispatches messages to listeners. Listeners are kept in a copy-on-write array, so they can be
+  added and removed from any thread, also from inside a listener.
+
+  By default listeners are called synchronously on the dispatching thread. An Event created with an
+  Executor calls them on that Executor instead, and a coalescing Event only keeps the latest data of
+  a message that is still waiting to be delivered, so a slow receiver gets one delivery with the newest
+  data instead of a backlog.
+  Synchronous dispatch never allocates. Coalescing dispatch reuses one delivery per message, so it only
+  allocates the first time a message is dispatched, apart from what the Executor needs to queue it.
+  Asynchronous dispatch without coalescing allocates a delivery for every dispatch*/
 
 public class Event<MsgT extends Enum> {
 
-    private List<EventListener> listeners = new ArrayList<>();
+    private static final EventListener[] noListeners = new EventListener[0];
+    //Stands in for null data in the pending map, which cannot hold null values
+    private static final Object noData = new Object();
+
+    private volatile EventListener[] listeners = noListeners;
+    private final Executor executor;
+    private final boolean isCoalescing;
+    //Per message of a coalescing Event, made on the first dispatch of the message
+    private final Map<MsgT, PendingDelivery> pending = new ConcurrentHashMap<>();
+
+    public Event() {
+        this(null, false);
+    }
 
-    public void addListener(EventListener el) {
-        listeners.add(el);
+    //Executor executor may be null for synchronous dispatch, boolean coalesce only applies to asynchronous dispatch
+    public Event(Executor executor, boolean coalesce) {
+        this.executor = executor;
+        this.isCoalescing = coalesce;
     }
 
-    public void removeListener(EventListener eventListener) {
-        listeners = listeners.stream()
-                .filter(el -> !el.equals(eventListener))
-                .collect(Collectors.toList());
+    public synchronized void addListener(EventListener el) {
+        EventListener[] current = listeners;
+        EventListener[] added = new EventListener[current.length + 1];
+        System.arraycopy(current, 0, added, 0, current.length);
+        added[current.length] = el;
+        listeners = added;
+    }
+
+    public synchronized void removeListener(EventListener eventListener) {
+        EventListener[] current = listeners;
+        int kept = 0;
+        EventListener[] remaining = new EventListener[current.length];
+        for (EventListener el : current) {
+            if (!el.equals(eventListener)) {
+                remaining[kept++] = el;
+            }
+        }
+        if (kept == current.length) {
+            return;
+        }
+        EventListener[] trimmed = new EventListener[kept];
+        System.arraycopy(remaining, 0, trimmed, 0, kept);
+        listeners = trimmed;
     }
 
     public void dispatch(MsgT em, Object data) {
-        for(EventListener l : listeners) {
+        if (executor == null) {
+            deliver(em, data);
+        } else if (!isCoalescing) {
+            executor.execute(() -> deliver(em, data));
+        } else {
+            PendingDelivery delivery = pending.get(em);
+            if (delivery == null) {
+                delivery = pending.computeIfAbsent(em, PendingDelivery::new);
+            }
+            if (delivery.data.getAndSet(data == null ? noData : data) == null) {
+                //Only the first dispatch of a message schedules a delivery, later ones just replace its data
+                executor.execute(delivery);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(MsgT em, Object data) {
+        for (EventListener l : listeners) {
             l.func(em, data);
         }
     }
+
+    //Latest data of a message waiting to be delivered, null while no delivery is scheduled
+    private final class PendingDelivery implements Runnable {
+        private final MsgT em;
+        private final AtomicReference<Object> data = new AtomicReference<>();
+
+        PendingDelivery(MsgT em) {
+            this.em = em;
+        }
+
+        @Override
+        public void run() {
+            Object latest = data.getAndSet(null);
+            deliver(em, latest == noData ? null : latest);
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package org.openjfx.utils.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*Structured log of game events. Events below the level of the log are dropped before anything is
+  read or allocated, so callers can log on every tick at no cost while the log is OFF.
+  Enabled events are copied into a preallocated ring buffer and written out by a background thread,
+  the logging thread never formats or writes anything itself. When the ring buffer is full new events
+  are dropped and counted instead of blocking the game.
+  Events are expected to be logged from one thread at a time, normally the simulation thread*/
+
+public class GameLog {
+
+    public enum Level {
+        DEBUG, INFO, WARN, OFF
+    }
+
+    private static final long idleParkNanos = 1_000_000L;
+
+    private final LogEvent[] ring;
+    private final int mask;
+    private final PrintStream out;
+    private volatile Level level;
+
+    //Sequence of the next event to write, only changed by the logging thread
+    private long writeSequence = 0;
+    //Sequence up to which events are readable by the appender
+    private volatile long publishedSequence = 0;
+    //Sequence up to which events have been written out and their slots can be reused
+    private volatile long readSequence = 0;
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread appender;
+    private volatile boolean running = false;
+
+    public GameLog() {
+        this(Level.OFF, System.out, 1024);
+    }
+
+    //int capacity is rounded up to a power of two
+    public GameLog(Level level, PrintStream out, int capacity) {
+        final int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new LogEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new LogEvent();
+        }
+        mask = size - 1;
+        this.out = out;
+        setLevel(level);
+    }
+
+    public boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    //Enabling the log starts the appender thread if it is not running yet
+    public synchronized void setLevel(Level level) {
+        this.level = level;
+        if (level != Level.OFF && !running) {
+            running = true;
+            appender = new Thread(this::runAppender, "game-log");
+            appender.setDaemon(true);
+            appender.start();
+        }
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    //Entity String entityId moved to x, y, facing String direction
+    public void movement(Level eventLevel, String entityId, double x, double y, String direction) {
+        if (!isEnabled(eventLevel)) {
+            return;
+        }
+        LogEvent event = claim();
+        if (event == null) {
+            return;
+        }
+        event.level = eventLevel;
+        event.type = LogEvent.Type.MOVEMENT;
+        event.subject = entityId;
+        event.target = direction;
+        event.x = x;
+        event.y = y;
+        publish();
+    }
+
+    //String attackerId hit String defenderId for int damage leaving it with int hpLeft
+    public void combat(Level eventLevel, String attackerId, String defenderId, int damage, int hpLeft) {
+        if (!isEnabled(eventLevel)) {
+            return;
+        }
+        LogEvent event = claim();
+        if (event == null) {
+            return;
+        }
+        event.level = eventLevel;
+        event.type = LogEvent.Type.COMBAT;
+        event.subject = attackerId;
+        event.target = defenderId;
+        event.damage = damage;
+        event.hp = hpLeft;
+        publish();
+    }
+
+    //Number of events dropped because the ring buffer was full
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    //Waits until every event logged so far has been written out
+    public void flush() {
+        while (running && readSequence < publishedSequence) {
+            LockSupport.parkNanos(idleParkNanos / 10);
+        }
+    }
+
+    //Writes out the remaining events and stops the appender thread, events logged after close are dropped
+    public synchronized void close() {
+        flush();
+        level = Level.OFF;
+        running = false;
+        if (appender != null) {
+            LockSupport.unpark(appender);
+            try {
+                appender.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            appender = null;
+        }
+    }
+
+    private LogEvent claim() {
+        if (writeSequence - readSequence >= ring.length) {
+            dropped.incrementAndGet();
+            return null;
+        }
+        LogEvent event = ring[(int) (writeSequence & mask)];
+        event.nanoTime = System.nanoTime();
+        return event;
+    }
+
+    private void publish() {
+        writeSequence++;
+        publishedSequence = writeSequence;
+    }
+
+    private void runAppender() {
+        final StringBuilder line = new StringBuilder(128);
+        while (running || readSequence < publishedSequence) {
+            final long published = publishedSequence;
+            long read = readSequence;
+            if (read == published) {
+                LockSupport.parkNanos(idleParkNanos);
+                continue;
+            }
+            while (read < published) {
+                line.setLength(0);
+                ring[(int) (read & mask)].appendTo(line);
+                out.println(line);
+                read++;
+                readSequence = read;
+            }
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.openjfx.utils.logging;
+
+//Reusable slot of the GameLog ring buffer, only the fields of its Type are meaningful
+class LogEvent {
+
+    enum Type {
+        MOVEMENT, COMBAT
+    }
+
+    long nanoTime;
+    GameLog.Level level;
+    Type type;
+    String subject;
+    String target;
+    double x;
+    double y;
+    int damage;
+    int hp;
+
+    void appendTo(StringBuilder sb) {
+        sb.append(nanoTime).append(' ').append(level).append(' ');
+        switch (type) {
+            case MOVEMENT:
+                sb.append("move entity=").append(subject)
+                        .append(" x=").append(x).append(" y=").append(y)
+                        .append(" direction=").append(target);
+                break;
+            case COMBAT:
+                sb.append("hit attacker=").append(subject).append(" defender=").append(target)
+                        .append(" damage=").append(damage).append(" hp=").append(hp);
+                break;
+        }
+    }
+}
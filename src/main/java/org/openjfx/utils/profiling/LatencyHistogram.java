@@ -0,0 +1,95 @@
+package org.openjfx.utils.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*Histogram of non-negative long values, such as durations in nanoseconds, with log-linear buckets
+  in the style of HdrHistogram. Every power of two is split into subBucketCount equal buckets, so any
+  recorded value is reported with a relative error below 1 / subBucketCount while the whole long range
+  fits in under two thousand counters. Recording is lock free and never allocates, the histogram can be
+  read from other threads while it is being recorded to*/
+
+public class LatencyHistogram {
+    private static final int subBucketBits = 5;
+    private static final int subBucketCount = 1 << subBucketBits;
+    private static final int bucketCount = subBucketCount * (64 - subBucketBits);
+
+    private final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    //Negative values are recorded as 0
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        if (value > maxValue.get()) {
+            maxValue.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        final long count = totalCount.get();
+        return count == 0 ? 0 : totalValue.get() / (double) count;
+    }
+
+    /*Returns the highest value of the bucket holding the value at double percentile (0 to 100),
+      at most getMax(). Returns 0 if nothing has been recorded*/
+
+    public long getValueAtPercentile(double percentile) {
+        final long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < bucketCount; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    //Values below subBucketCount get a bucket each, larger values are bucketed by their top subBucketBits + 1 bits
+    static int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = magnitude - subBucketBits;
+        final int subBucket = (int) (value >>> shift) - subBucketCount;
+        return subBucketCount + shift * subBucketCount + subBucket;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        final int shift = (index - subBucketCount) / subBucketCount;
+        final long subBucket = (index - subBucketCount) % subBucketCount;
+        return ((subBucketCount + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,83 @@
+package org.openjfx.utils.profiling;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/*Times the phases of a simulation tick and of rendering into one LatencyHistogram per Phase.
+  Usage: long start = profiler.start(); ... profiler.stop(Phase.MOBS_ATTACK, start);
+  A disabled profiler does not read the clock and records nothing*/
+
+public class TickProfiler {
+
+    public enum Phase {
+        TICK("tick"),
+        CHECK_INACTIVE("checkIfEntitiesInactive"),
+        CHECK_ACTIVE("checkIfEntitiesActive"),
+        FLOW_FIELD("flow field"),
+        LONG_PATHS("long paths"),
+        ENEMY_MOVEMENT("enemy movement"),
+        MOBS_ATTACK("mobsAttack"),
+        UPDATE_WORLD_GRID("updateWorldGrid"),
+        RERENDER("View.rerender");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private volatile boolean enabled = true;
+
+    public TickProfiler() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    //Returns the start time to pass to stop(), 0 while the profiler is disabled
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(Phase phase, long start) {
+        if (enabled && start != 0) {
+            histograms.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    //One line per phase with its count and its 50th, 99th percentile and max in microseconds
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = histograms.get(phase);
+            sb.append(String.format("%-24s n=%-7d p50=%8.1fus p99=%8.1fus max=%8.1fus%n", phase.getLabel(),
+                    histogram.getCount(), histogram.getValueAtPercentile(50) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3, histogram.getMax() / 1e3));
+        }
+        return sb.toString();
+    }
+}
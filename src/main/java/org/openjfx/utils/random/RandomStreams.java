@@ -0,0 +1,51 @@
+package org.openjfx.utils.random;
+
+import java.util.SplittableRandom;
+
+/*Derives independent, reproducible random streams from one seed. A stream is identified by its parent seed
+  and a stream id, so a world seed gives one stream per purpose, each of those one stream per chunk and so on,
+  and every stream is the same no matter in which order or on which thread the streams are created.
+  Streams are SplittableRandoms, which must not be shared between threads. Where a single value is needed
+  the hash functions can be used instead, they are pure and can be called from any thread without allocating*/
+
+public final class RandomStreams {
+    private static final long golden = 0x9E3779B97F4A7C15L;
+
+    private RandomStreams() {
+    }
+
+    //SplitMix64 finalizer, spreads every input bit over the whole output
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    //Seed of the stream long streamId of long parentSeed
+    public static long derive(long parentSeed, long streamId) {
+        return mix(parentSeed + mix(streamId * golden + golden));
+    }
+
+    public static long derive(long parentSeed, long firstId, long secondId) {
+        return derive(derive(parentSeed, firstId), secondId);
+    }
+
+    public static SplittableRandom stream(long parentSeed, long streamId) {
+        return new SplittableRandom(derive(parentSeed, streamId));
+    }
+
+    //Uniform double in [0, 1) from the top 53 bits of long hash
+    public static double unitDouble(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    //Uniform int in [0, bound) from the top 32 bits of long hash, int bound must be positive
+    public static int boundedInt(long hash, int bound) {
+        return (int) (((hash >>> 32) * bound) >>> 32);
+    }
+
+    //A seed for something that does not need to be reproducible, like a new game
+    public static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+}
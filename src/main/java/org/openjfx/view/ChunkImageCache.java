@@ -0,0 +1,71 @@
+package org.openjfx.view;
+
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import org.openjfx.model.Coordinates;
+import org.openjfx.model.WorldSnapshot;
+import org.openjfx.model.tile.TileType;
+import org.openjfx.utils.collection.LongHashMap;
+
+/*Terrain of whole chunks rendered once into offscreen images, so the tile layer can be drawn
+  with one image per visible chunk. Images of chunks the world has unloaded are evicted*/
+
+class ChunkImageCache {
+    private final int tileSize;
+    private final LongHashMap<WritableImage> images = new LongHashMap<>();
+    private byte[] chunkTiles = new byte[0];
+    private long[] evictedKeys = new long[0];
+    private int evictedCount;
+
+    ChunkImageCache(int tileSize) {
+        this.tileSize = tileSize;
+    }
+
+    //Returns the terrain image of chunk chunkX, chunkY, rendering it the first time it is asked for
+    WritableImage get(WorldSnapshot snapshot, int chunkX, int chunkY) {
+        long key = Coordinates.pack(chunkX, chunkY);
+        WritableImage image = images.get(key);
+        if (image == null) {
+            image = render(snapshot, chunkX, chunkY);
+            images.put(key, image);
+        }
+        return image;
+    }
+
+    void evictUnloaded(WorldSnapshot snapshot) {
+        if (evictedKeys.length < images.size()) {
+            evictedKeys = new long[images.size()];
+        }
+        evictedCount = 0;
+        images.forEach((key, image) -> {
+            if (!snapshot.isChunkLoaded(Coordinates.unpackX(key), Coordinates.unpackY(key))) {
+                evictedKeys[evictedCount++] = key;
+            }
+        });
+        for (int i = 0; i < evictedCount; i++) {
+            images.remove(evictedKeys[i]);
+        }
+    }
+
+    int size() {
+        return images.size();
+    }
+
+    private WritableImage render(WorldSnapshot snapshot, int chunkX, int chunkY) {
+        final int chunkSize = snapshot.getChunkSize();
+        if (chunkTiles.length != chunkSize * chunkSize) {
+            chunkTiles = new byte[chunkSize * chunkSize];
+        }
+        snapshot.fillTerrainChunk(chunkX, chunkY, chunkTiles);
+
+        WritableImage image = new WritableImage(chunkSize * tileSize, chunkSize * tileSize);
+        PixelWriter writer = image.getPixelWriter();
+        for (int row = 0; row < chunkSize; row++) {
+            for (int column = 0; column < chunkSize; column++) {
+                String spriteId = TileType.byId(chunkTiles[row * chunkSize + column]).getSpriteId();
+                ResourceHandler.copyPixels(writer, spriteId, column * tileSize, row * tileSize);
+            }
+        }
+        return image;
+    }
+}
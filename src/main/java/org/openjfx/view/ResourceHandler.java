@@ -1,12 +1,97 @@
 package org.openjfx.view;
 
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class ResourceHandler {
 
-    //Fetches PNG Image called id.png
+    //Every sprite the game draws, these are decoded once and packed into the atlas by preload()
+    private static final String[] spriteIds = {
+            "Grass", "Lava", "Mountain", "Player", "Goblin", "Rat", "Mob", "Chest",
+            "Sword", "Axe", "Armor", "ItemContainer", "EnemyHealthbarContainer", "PlayerHealthbarContainer"
+    };
+    private static final int atlasMaxWidth = 512;
+
+    private static final Map<String, Image> images = new HashMap<>();
+    private static final Map<String, Rectangle2D> atlasRegions = new HashMap<>();
+    private static WritableImage atlas;
+
+    /*Decodes all sprites in spriteIds and packs them row by row into a single atlas image,
+      rows are filled left to right and a new row is started when int atlasMaxWidth is reached*/
+
+    static void preload() {
+        if (atlas != null) {
+            return;
+        }
+        int atlasWidth = 0;
+        int atlasHeight = 0;
+        int rowWidth = 0;
+        int rowHeight = 0;
+        Map<String, Rectangle2D> regions = new HashMap<>();
+        for (String id : spriteIds) {
+            Image image = getResource(id);
+            int width = (int) image.getWidth();
+            int height = (int) image.getHeight();
+            if (rowWidth > 0 && rowWidth + width > atlasMaxWidth) {
+                atlasHeight += rowHeight;
+                rowWidth = 0;
+                rowHeight = 0;
+            }
+            regions.put(id, new Rectangle2D(rowWidth, atlasHeight, width, height));
+            rowWidth += width;
+            rowHeight = Math.max(rowHeight, height);
+            atlasWidth = Math.max(atlasWidth, rowWidth);
+        }
+        atlasHeight += rowHeight;
+
+        WritableImage packed = new WritableImage(atlasWidth, atlasHeight);
+        PixelWriter writer = packed.getPixelWriter();
+        for (Map.Entry<String, Rectangle2D> region : regions.entrySet()) {
+            Rectangle2D r = region.getValue();
+            writer.setPixels((int) r.getMinX(), (int) r.getMinY(), (int) r.getWidth(), (int) r.getHeight(),
+                    images.get(region.getKey()).getPixelReader(), 0, 0);
+        }
+        atlasRegions.putAll(regions);
+        atlas = packed;
+    }
+
+    //Fetches PNG Image called id.png, the image is only decoded the first time it is asked for
     static Image getResource(String id){
-        String imageUrl = ClassLoader.getSystemResource(id + ".png").toExternalForm();
-        return new Image (imageUrl);
+        Image image = images.get(id);
+        if (image == null) {
+            String imageUrl = ClassLoader.getSystemResource(id + ".png").toExternalForm();
+            image = new Image(imageUrl);
+            images.put(id, image);
+        }
+        return image;
+    }
+
+    //Copies the pixels of the sprite called id from the atlas into writer at x, y
+    static void copyPixels(PixelWriter writer, String id, int x, int y) {
+        Rectangle2D region = atlasRegions.get(id);
+        if (region == null) {
+            Image image = getResource(id);
+            writer.setPixels(x, y, (int) image.getWidth(), (int) image.getHeight(), image.getPixelReader(), 0, 0);
+            return;
+        }
+        writer.setPixels(x, y, (int) region.getWidth(), (int) region.getHeight(),
+                atlas.getPixelReader(), (int) region.getMinX(), (int) region.getMinY());
+    }
+
+    //Draws the sprite called id at x, y, from the atlas if it has been packed into it
+    static void draw(GraphicsContext graphics, String id, double x, double y) {
+        Rectangle2D region = atlasRegions.get(id);
+        if (region == null) {
+            graphics.drawImage(getResource(id), x, y);
+            return;
+        }
+        graphics.drawImage(atlas, region.getMinX(), region.getMinY(), region.getWidth(), region.getHeight(),
+                x, y, region.getWidth(), region.getHeight());
     }
 }
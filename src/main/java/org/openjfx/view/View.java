@@ -10,22 +10,38 @@ import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 import org.openjfx.model.*;
 
-import org.openjfx.model.tile.Tile;
-
 import org.openjfx.utils.event.Event;
 import org.openjfx.utils.event.EventListener;
+import org.openjfx.utils.profiling.LatencyHistogram;
+import org.openjfx.utils.profiling.TickProfiler;
 
-import java.util.List;
+/*Draws the game on three stacked canvases, terrain at the bottom, entities in the middle and the
+  HUD overlay on top. Each layer remembers a fingerprint of what it was last drawn from and is only
+  cleared and redrawn when that fingerprint changes.
+  The model publishes WorldSnapshots from the simulation thread and is expected to deliver them on the
+  JavaFX thread, coalesced so that only the newest snapshot is drawn when the View falls behind*/
 
 public class View {
     private Stage stage;
-    private Canvas gameScreen;
+    private Canvas tileLayer;
+    private Canvas entityLayer;
+    private Canvas overlayLayer;
     private int screenXSize;
     private int screenYSize;
     private Rectangle playerHealthbar;
     private Event<ViewEventMessages> viewEvent;
     private final int pixelSize = 32;
-    private GraphicsContext graphics;
+    private GraphicsContext tileGraphics;
+    private GraphicsContext entityGraphics;
+    private GraphicsContext overlayGraphics;
+
+    private boolean hasRendered = false;
+    private long renderedTileState;
+    private long renderedEntityState;
+    private long renderedOverlayState;
+    private final ChunkImageCache chunkImages = new ChunkImageCache(pixelSize);
+    private TickProfiler profiler;
+    private boolean isProfilerOverlayShown = false;
 
     public View(Stage stage, Event<EventMessage> modelHasUpdateEvent) {
         this.stage = stage;
@@ -36,9 +52,14 @@ public class View {
         screenYSize = pixelSize * 13;
         Scene scene = new Scene(layers, screenXSize, screenYSize);
 
-        gameScreen = new Canvas(screenXSize, screenYSize);
-        layers.getChildren().add(gameScreen);
-        graphics = gameScreen.getGraphicsContext2D();
+        tileLayer = new Canvas(screenXSize, screenYSize);
+        entityLayer = new Canvas(screenXSize, screenYSize);
+        overlayLayer = new Canvas(screenXSize, screenYSize);
+        layers.getChildren().addAll(tileLayer, entityLayer, overlayLayer);
+        tileGraphics = tileLayer.getGraphicsContext2D();
+        entityGraphics = entityLayer.getGraphicsContext2D();
+        overlayGraphics = overlayLayer.getGraphicsContext2D();
+        ResourceHandler.preload();
 
         playerHealthbar = new Rectangle(180, 30, Color.color(1, 0.2, 0.2)
         );
@@ -53,101 +74,197 @@ public class View {
         modelHasUpdateEvent.addListener(new EventListener<EventMessage>() {
             @Override
             public void func(EventMessage emsg, Object data) {
-                rerender(emsg, data);
+                switch (emsg) {
+                    case UPDATE:
+                        rerender((WorldSnapshot) data);
+                }
             }
         });
     }
 
-    private void rerender(EventMessage emsg, Object data) {
-        switch (emsg) {
-            case UPDATE:
-                World world = (World) data;
+    private void rerender(WorldSnapshot snapshot) {
+        final long start = profiler == null ? 0 : profiler.start();
+        double xOffset = (screenXSize / 2) - pixelSize / 2;
+        double yOffset = (screenYSize / 2) - pixelSize / 2;
+        double playerX = translateX(snapshot.getPlayerX()) - xOffset;
+        double playerY = translateY(snapshot.getPlayerY()) - yOffset;
+
+        long tileState = tileState(snapshot);
+        if (!hasRendered || tileState != renderedTileState) {
+            tileGraphics.clearRect(0, 0, screenXSize, screenYSize);
+            renderTileWorld(snapshot,playerX,playerY);
+            renderedTileState = tileState;
+        }
 
-                double xOffset = (screenXSize / 2) - pixelSize / 2;
-                double yOffset = (screenYSize / 2) - pixelSize / 2;
-                double playerX = translateX(world.player.getXcoord()) - xOffset;
-                double playerY = translateY(world.player.getYcoord()) - yOffset;
-                int playerHP = world.player.getHp();
+        long entityState = entityState(snapshot);
+        if (!hasRendered || entityState != renderedEntityState) {
+            entityGraphics.clearRect(0, 0, screenXSize, screenYSize);
+            renderEntities(snapshot,playerX,playerY);
+            drawObject(entityGraphics, snapshot.getPlayerId(),translateX(0),translateY(0));
+            renderedEntityState = entityState;
+        }
 
-                Item [] playerInventory = world.player.getInventory();
+        long overlayState = overlayState(snapshot);
+        if (!hasRendered || overlayState != renderedOverlayState) {
+            overlayGraphics.clearRect(0, 0, screenXSize, screenYSize);
+            renderOverlay(snapshot);
+            if (isProfilerOverlayShown) {
+                renderProfilerOverlay();
+            }
+            renderedOverlayState = overlayState;
+        }
+        hasRendered = true;
+        if (profiler != null) {
+            profiler.stop(TickProfiler.Phase.RERENDER, start);
+        }
+    }
 
-                gameScreen.getGraphicsContext2D().clearRect(0, 0, 1000,1000);
-                renderTileWorld(world,playerX,playerY);
-                renderEntities(world.getActiveEnemies(), world.getActiveChests(),playerX,playerY);
-                drawObject(world.player.getId(),translateX(0),translateY(0));
-                renderOverlay(playerHP,playerInventory);
+    //The terrain only moves on screen when the player moves, the viewport scrolls with the player
+    private long tileState(WorldSnapshot snapshot) {
+        long state = mix(0, snapshot.getPlayerX());
+        state = mix(state, snapshot.getPlayerY());
+        state = mix(state, snapshot.getTiles().getMinX());
+        return mix(state, snapshot.getTiles().getMinY());
+    }
 
+    private long entityState(WorldSnapshot snapshot) {
+        long state = mix(0, snapshot.getPlayerX());
+        state = mix(state, snapshot.getPlayerY());
+        for (int i = 0; i < snapshot.getEnemyCount(); i++) {
+            state = mix(state, snapshot.getEnemyX(i));
+            state = mix(state, snapshot.getEnemyY(i));
+            state = mix(state, snapshot.getEnemyHp(i));
+            state = mix(state, snapshot.getEnemyId(i).hashCode());
         }
+        for (int i = 0; i < snapshot.getChestCount(); i++) {
+            state = mix(state, snapshot.getChestX(i));
+            state = mix(state, snapshot.getChestY(i));
+        }
+        return state;
     }
 
+    private long overlayState(WorldSnapshot snapshot) {
+        long state = mix(0, snapshot.getPlayerHp());
+        for (int i = 0; i < snapshot.getInventorySize(); i++) {
+            state = mix(state, snapshot.getItemId(i) == null ? 0 : snapshot.getItemId(i).hashCode());
+            state = mix(state, snapshot.isItemSelected(i) ? 1 : 0);
+        }
+        //The profiler overlay changes every update while it is shown
+        return isProfilerOverlayShown ? mix(state, snapshot.getTick()) : state;
+    }
+
+    private static long mix(long state, double value) {
+        return mix(state, Double.doubleToLongBits(value));
+    }
+
+    private static long mix(long state, long value) {
+        return (state ^ value) * 0x100000001B3L + 0x9E3779B97F4A7C15L;
+    }
 
     private double translateY(double modelY) {
-        return gameScreen.getHeight() / 2 + modelY * pixelSize - 16;
+        return screenYSize / 2 + modelY * pixelSize - 16;
     }
 
     private double translateX(double modelX) {
-        return gameScreen.getWidth() / 2 + modelX * pixelSize - 16;
+        return screenXSize / 2 + modelX * pixelSize - 16;
     }
 
     //Draws object with String id
 
-    private void drawObject(String id, double x, double y) {
-        graphics.drawImage(ResourceHandler.getResource(id), x, y);
+    private void drawObject(GraphicsContext graphics, String id, double x, double y) {
+        ResourceHandler.draw(graphics, id, x, y);
     }
 
 
-    private void renderOverlay(int HP, Item[] inventory){
-        double healthbarWidth = 1.8 * HP;
+    private void renderOverlay(WorldSnapshot snapshot){
+        double healthbarWidth = 1.8 * snapshot.getPlayerHp();
         playerHealthbar.setWidth(healthbarWidth);
-        graphics.setFill(Color.WHITE);
-        graphics.fillRect(gameScreen.getWidth() - 250, 20, 180, 30);
-        graphics.setFill(playerHealthbar.getFill());
-        graphics.fillRect(gameScreen.getWidth() - 250, 20, healthbarWidth, playerHealthbar.getHeight());
-        graphics.drawImage(ResourceHandler.getResource("PlayerHealthbarContainer"), gameScreen.getWidth() - 250, 20);
+        overlayGraphics.setFill(Color.WHITE);
+        overlayGraphics.fillRect(screenXSize - 250, 20, 180, 30);
+        overlayGraphics.setFill(playerHealthbar.getFill());
+        overlayGraphics.fillRect(screenXSize - 250, 20, healthbarWidth, playerHealthbar.getHeight());
+        ResourceHandler.draw(overlayGraphics, "PlayerHealthbarContainer", screenXSize - 250, 20);
 
-        for (int i = 0; i < inventory.length; i++) {
-            double xCoord = gameScreen.getWidth() - (pixelSize * 2 * (inventory.length - i) + 20);
-            double yCoord = gameScreen.getHeight() - pixelSize * 2 - 20;
+        final int inventorySize = snapshot.getInventorySize();
+        for (int i = 0; i < inventorySize; i++) {
+            double xCoord = screenXSize - (pixelSize * 2 * (inventorySize - i) + 20);
+            double yCoord = screenYSize - pixelSize * 2 - 20;
 
 
-            graphics.setFill(Color.WHITE);
-            graphics.fillRect(xCoord, yCoord, 64, 64);
+            overlayGraphics.setFill(Color.WHITE);
+            overlayGraphics.fillRect(xCoord, yCoord, 64, 64);
 
-            if (inventory[i] != null) {
-                if(inventory[i].getIsItemSelected()){
-                    graphics.setFill(Color.ORANGE);
-                    graphics.fillRect(xCoord, yCoord, 64,64);
+            if (snapshot.getItemId(i) != null) {
+                if(snapshot.isItemSelected(i)){
+                    overlayGraphics.setFill(Color.ORANGE);
+                    overlayGraphics.fillRect(xCoord, yCoord, 64,64);
                 }
-                graphics.drawImage(ResourceHandler.getResource(inventory[i].getId()), xCoord, yCoord);
+                ResourceHandler.draw(overlayGraphics, snapshot.getItemId(i), xCoord, yCoord);
             }
-            graphics.drawImage(ResourceHandler.getResource("ItemContainer"), xCoord, yCoord);
+            ResourceHandler.draw(overlayGraphics, "ItemContainer", xCoord, yCoord);
         }
     }
 
-    private void renderEntities(List <Combatant> enemies, List<Chest> chests, double playerX, double playerY){
-        for (Chest chest : chests){
-            graphics.drawImage(ResourceHandler.getResource(chest.getId()), translateX(chest.getXcoord()) - playerX, translateY(chest.getYcoord()) - playerY);
+    private void renderEntities(WorldSnapshot snapshot, double playerX, double playerY){
+        for (int i = 0; i < snapshot.getChestCount(); i++){
+            ResourceHandler.draw(entityGraphics, snapshot.getChestId(i), translateX(snapshot.getChestX(i)) - playerX, translateY(snapshot.getChestY(i)) - playerY);
         }
-        for(Combatant e : enemies){
-            double healthbarXCoord = translateX(e.getXcoord())-playerX - 15;
-            double healthbarYCoord = translateY(e.getYcoord())-playerY - pixelSize/2;
-            drawObject(e.getId(), translateX(e.getXcoord())-playerX, translateY(e.getYcoord())-playerY);
-            graphics.setFill(playerHealthbar.getFill());
-            graphics.fillRect(healthbarXCoord,healthbarYCoord,6*e.getHp()/10,10);
-            drawObject("EnemyHealthbarContainer",healthbarXCoord,healthbarYCoord);
+        for (int i = 0; i < snapshot.getEnemyCount(); i++){
+            double enemyX = translateX(snapshot.getEnemyX(i))-playerX;
+            double enemyY = translateY(snapshot.getEnemyY(i))-playerY;
+            double healthbarXCoord = enemyX - 15;
+            double healthbarYCoord = enemyY - pixelSize/2;
+            drawObject(entityGraphics, snapshot.getEnemyId(i), enemyX, enemyY);
+            entityGraphics.setFill(playerHealthbar.getFill());
+            entityGraphics.fillRect(healthbarXCoord,healthbarYCoord,6*snapshot.getEnemyHp(i)/10,10);
+            drawObject(entityGraphics, "EnemyHealthbarContainer",healthbarXCoord,healthbarYCoord);
         }
     }
 
-    private void renderTileWorld(World world, double playerX, double playerY) {
-        for (List<Tile> tileRow: world.getWorldGrid()){
-            for (Tile tile: tileRow){
-                graphics.drawImage(ResourceHandler.getResource(tile.getId()),translateX(tile.getXcoord()) - playerX,translateY(tile.getYcoord()) - playerY);
+    /*Draws the terrain as one pre-rendered image per chunk that overlaps the screen,
+    chunk images of chunks the world no longer has loaded are dropped first*/
+
+    private void renderTileWorld(WorldSnapshot snapshot, double playerX, double playerY) {
+        chunkImages.evictUnloaded(snapshot);
+        final int chunkSize = snapshot.getChunkSize();
+        final double playerXcoord = snapshot.getPlayerX();
+        final double playerYcoord = snapshot.getPlayerY();
+        final int minChunkX = (int) Math.floor(Math.floor(playerXcoord - (screenXSize / 2.0 + pixelSize) / pixelSize) / chunkSize);
+        final int maxChunkX = (int) Math.floor(Math.ceil(playerXcoord + (screenXSize / 2.0 + pixelSize) / pixelSize) / chunkSize);
+        final int minChunkY = (int) Math.floor(Math.floor(playerYcoord - (screenYSize / 2.0 + pixelSize) / pixelSize) / chunkSize);
+        final int maxChunkY = (int) Math.floor(Math.ceil(playerYcoord + (screenYSize / 2.0 + pixelSize) / pixelSize) / chunkSize);
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++){
+            double x = translateX(chunkX * chunkSize) - playerX;
+            for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++){
+                tileGraphics.drawImage(chunkImages.get(snapshot, chunkX, chunkY), x, translateY(chunkY * chunkSize) - playerY);
             }
         }
     }
 
-    private Canvas getGameScreen() {
-        return gameScreen;
+    //Lists the 50th and 99th percentile and max time of every profiled phase in the top left corner
+    private void renderProfilerOverlay() {
+        overlayGraphics.setFill(Color.color(0, 0, 0, 0.6));
+        overlayGraphics.fillRect(10, 10, 330, 16 * TickProfiler.Phase.values().length + 24);
+        overlayGraphics.setFill(Color.WHITE);
+        overlayGraphics.fillText("phase                 p50 / p99 / max (us)", 16, 26);
+        double yCoord = 42;
+        for (TickProfiler.Phase phase : TickProfiler.Phase.values()) {
+            LatencyHistogram histogram = profiler.getHistogram(phase);
+            overlayGraphics.fillText(String.format("%-24s %7.0f / %7.0f / %7.0f", phase.getLabel(),
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getMax() / 1e3), 16, yCoord);
+            yCoord += 16;
+        }
+    }
+
+    //TickProfiler profiler also gets the time spent in rerender, it can be shown on screen with toggleProfilerOverlay()
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void toggleProfilerOverlay() {
+        isProfilerOverlayShown = profiler != null && !isProfilerOverlayShown;
     }
 
     public Event<ViewEventMessages> getViewEvent() {
@@ -0,0 +1,49 @@
+package org.openjfx.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjfx.model.Model;
+
+public class HeadlessControllerTest {
+
+    private HeadlessController controller = new HeadlessController(new Model(null, 1));
+
+    @Test
+    public void runTicksTest(){
+        controller.runTicks(200);
+
+        Assert.assertEquals(200, controller.getTickCount());
+        Assert.assertTrue(controller.getTicksPerSecond() > 0);
+    }
+
+    //  Test that the fixed timestep loop ticks on its own thread until stopped
+    @Test
+    public void fixedTimestepTest() throws InterruptedException {
+        HeadlessController fast = new HeadlessController(new Model(null, 1), 1_000_000L);
+        fast.start();
+        Thread.sleep(100);
+        fast.stop();
+
+        long ticks = fast.getTickCount();
+        Assert.assertFalse(fast.isRunning());
+        Assert.assertTrue(ticks > 0);
+        Thread.sleep(20);
+        Assert.assertEquals(ticks, fast.getTickCount());
+    }
+
+    //  Test that a tick throwing an exception stops the loop and isRunning() reports it
+    @Test
+    public void failedTickTest() throws InterruptedException {
+        Model model = new Model(null, 1);
+        HeadlessController failing = new HeadlessController(model, 1_000_000L);
+        model.post(() -> {
+            throw new IllegalStateException("broken tick");
+        });
+        failing.start();
+        for (int wait = 0; wait < 100 && failing.isRunning(); wait++) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(failing.isRunning());
+        failing.stop();
+    }
+}
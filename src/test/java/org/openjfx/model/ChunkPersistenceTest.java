@@ -0,0 +1,110 @@
+package org.openjfx.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ChunkPersistenceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //  Test that chunks left behind are stored on disk and come back unchanged when the player returns
+    @Test
+    public void storeAndReloadTest() throws IOException {
+        World world = new World((x, y) -> 0, 5, 2000, 40000, 4000);
+        world.enableChunkPersistence(folder.getRoot().toPath(), 8);
+        world.checkIfEntitiesActive();
+        world.getActiveEnemies().get(0).decHp(30);
+        Set<String> nearStart = states(world.getActiveEnemies());
+        List<String> everything = allStates(world);
+
+        moveTo(world, 500, 500);
+        assertTrue(world.getStoredChunkCount() > 0);
+        assertTrue(world.getResidentChunkCount() < 64);
+        //  Every entity is counted once, not once in memory and once more on disk
+        List<String> afterMove = allStates(world);
+        assertEquals(new HashSet<>(afterMove).size(), afterMove.size());
+        assertTrue(afterMove.containsAll(everything));
+
+        moveTo(world, 0.05, 0.05);
+        assertEquals(nearStart, states(world.getActiveEnemies()));
+        world.closeChunkPersistence();
+    }
+
+    //  Test that a save holds the stored chunks as they were when it was captured, even if they are loaded before it is written
+    @Test
+    public void saveStoredChunksTest() throws IOException {
+        World world = new World((x, y) -> 0, 5, 2000, 40000, 4000);
+        world.enableChunkPersistence(folder.getRoot().toPath().resolve("regions"), 8);
+        world.checkIfEntitiesActive();
+        moveTo(world, 500, 500);
+        assertTrue(world.getStoredChunkCount() > 0);
+        List<String> everything = allStates(world);
+        assertEquals(new HashSet<>(everything).size(), everything.size());
+
+        WorldSave save = WorldSave.capture(world);
+        moveTo(world, 0.05, 0.05);
+        Path path = folder.getRoot().toPath().resolve("world.sav");
+        save.write(path);
+        World loaded = WorldSave.read(path).toWorld((x, y) -> 0);
+        assertEquals(everything, allStates(loaded));
+        world.closeChunkPersistence();
+    }
+
+    //  Test that a failing disk does not stop the world and that chunks whose write failed come back from memory
+    @Test
+    public void failingDiskTest() throws IOException {
+        World world = new World((x, y) -> 0, 5, 2000, 40000, 4000);
+        Path regions = folder.getRoot().toPath().resolve("regions");
+        world.enableChunkPersistence(regions, 8);
+        // The region files can not be created once their directory is a file
+        Files.delete(regions);
+        Files.createFile(regions);
+        world.checkIfEntitiesActive();
+        Set<String> nearStart = states(world.getActiveEnemies());
+
+        moveTo(world, 500, 500);
+        moveTo(world, 1000, 0);
+        moveTo(world, 0.05, 0.05);
+        assertEquals(nearStart, states(world.getActiveEnemies()));
+        world.closeChunkPersistence();
+    }
+
+    private static void moveTo(World world, double x, double y) {
+        world.restorePlayer(new Player("Player", x, y, 100, 20, 2, 0));
+        world.checkIfEntitiesInactive();
+        world.checkIfEntitiesActive();
+    }
+
+    //Sorted states of every entity, an entity counted twice shows up twice
+    private static List<String> allStates(World world) {
+        List<String> states = new ArrayList<>();
+        world.forEachResidentEnemy(enemy -> states.add(enemy.getId() + enemy.getCoords() + enemy.getHp()));
+        world.forEachResidentChest(chest -> states.add(chest.getId() + chest.getCoords()));
+        ChunkPersistence.decodeStored(world.readStoredChunks(),
+                enemy -> states.add(enemy.getId() + enemy.getCoords() + enemy.getHp()),
+                chest -> states.add(chest.getId() + chest.getCoords()));
+        Collections.sort(states);
+        return states;
+    }
+
+    private static Set<String> states(Iterable<Combatant> enemies) {
+        Set<String> states = new HashSet<>();
+        for (Combatant enemy : enemies) {
+            states.add(enemy.getId() + enemy.getCoords() + enemy.getHp());
+        }
+        return states;
+    }
+}
@@ -0,0 +1,49 @@
+package org.openjfx.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChunkSpawnerTest {
+
+    //  Test that two spawners with the same seed populate a chunk with the same enemies
+    @Test
+    public void deterministicPopulationTest(){
+        List<Combatant> first = populate(new ChunkSpawner(42, 16, 5000, 1000000, 0));
+        List<Combatant> second = populate(new ChunkSpawner(42, 16, 5000, 1000000, 0));
+
+        assertFalse(first.isEmpty());
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getId(), second.get(i).getId());
+            assertEquals(first.get(i).getXcoord(), second.get(i).getXcoord(), 0);
+            assertEquals(first.get(i).getYcoord(), second.get(i).getYcoord(), 0);
+        }
+    }
+
+    //  Test that a chunk is only populated the first time it comes within range
+    @Test
+    public void populateOnceTest(){
+        ChunkSpawner spawner = new ChunkSpawner(7, 16, 5000, 1000000, 1000000);
+        SpatialGrid<Combatant> enemies = new SpatialGrid<>(16);
+        SpatialGrid<Chest> chests = new SpatialGrid<>(16);
+
+        spawner.populateAround(0, 0, 10, enemies, chests);
+        int populated = enemies.size() + chests.size();
+        spawner.populateAround(0, 0, 10, enemies, chests);
+
+        assertEquals(populated, enemies.size() + chests.size());
+        assertEquals(4, spawner.getPopulatedChunkCount());
+    }
+
+    private List<Combatant> populate(ChunkSpawner spawner) {
+        SpatialGrid<Combatant> enemies = new SpatialGrid<>(16);
+        spawner.populateAround(8, 8, 1, enemies, new SpatialGrid<>(16));
+        List<Combatant> found = new ArrayList<>();
+        enemies.removeWithinDistance(8, 8, 16, found);
+        return found;
+    }
+}
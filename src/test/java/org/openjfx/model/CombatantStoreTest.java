@@ -0,0 +1,86 @@
+package org.openjfx.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CombatantStoreTest {
+
+    private CombatantStore store = new CombatantStore(1);
+
+    //  Test that a stored Combatant reads and writes its state in the store and gets it back when removed
+    @Test
+    public void bindTest(){
+        Enemy enemy = new Enemy("Goblin", 3, 4, 100, 30, 2, 5);
+        store.add(enemy);
+
+        enemy.move(Movable.Direction.RIGHT);
+        enemy.decHp(40);
+        enemy.setAttackOnCooldown();
+        assertEquals(3.1, store.getX(0), 1e-9);
+        assertEquals(60, store.getHp(0));
+        assertFalse(enemy.canAttack());
+
+        store.remove(enemy);
+        assertTrue(store.isEmpty());
+        assertEquals(new Coordinates(3.1, 4), enemy.getCoords());
+        assertEquals(60, enemy.getHp());
+        assertEquals(5, enemy.getDef());
+        assertEquals(Movable.Direction.RIGHT, enemy.getDirection());
+        assertEquals("Goblin", enemy.getId());
+    }
+
+    //  Test that removing swaps the last Combatant into the freed slot and keeps its handle working
+    @Test
+    public void swapRemoveTest(){
+        Enemy first = new Enemy("Goblin", 0, 0, 100, 30, 2, 0);
+        Enemy second = new Enemy("Rat", 1, 0, 100, 30, 2, 0);
+        Enemy third = new Enemy("Goblin", 2, 0, 50, 30, 2, 0);
+        store.add(first);
+        store.add(second);
+        store.add(third);
+
+        store.remove(0);
+        assertEquals(2, store.size());
+        assertSame(third, store.get(0));
+        assertSame(second, store.get(1));
+        assertFalse(store.contains(first));
+
+        third.decHp(10);
+        assertEquals(40, third.getHp());
+        assertEquals(2, third.getXcoord(), 0);
+        assertEquals("Rat", second.getId());
+    }
+
+    //  Test that the cell lists follow Combatants that move across cells and slots that are swapped on removal
+    @Test
+    public void cellListTest(){
+        Enemy first = new Enemy("Goblin", 0, 0, 100, 30, 2, 0);
+        Enemy second = new Enemy("Rat", 1, 1, 100, 30, 2, 0);
+        Enemy third = new Enemy("Goblin", 5, 0, 50, 30, 2, 0);
+        store.add(first);
+        store.add(second);
+        store.add(third);
+        assertEquals(2, cellCount(0, 0));
+        assertEquals(1, cellCount(2, 0));
+
+        for (int i = 0; i < 15; i++) {
+            second.move(Movable.Direction.UP);
+        }
+        assertEquals(1, cellCount(0, 0));
+        assertEquals(1, cellCount(0, -1));
+
+        store.remove(first);
+        assertEquals(0, cellCount(0, 0));
+        assertSame(third, store.get(store.firstInCell(2, 0)));
+        assertSame(second, store.get(store.firstInCell(0, -1)));
+    }
+
+    private int cellCount(int cellX, int cellY) {
+        int count = 0;
+        for (int slot = store.firstInCell(cellX, cellY); slot >= 0; slot = store.nextInCell(slot)) {
+            count++;
+        }
+        return count;
+    }
+}
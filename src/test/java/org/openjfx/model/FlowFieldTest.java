@@ -0,0 +1,44 @@
+package org.openjfx.model;
+
+import org.junit.Test;
+import org.openjfx.model.tile.TileFactory;
+import org.openjfx.model.tile.TileGrid;
+
+import static org.junit.Assert.*;
+
+public class FlowFieldTest {
+
+    // Mountain wall on column 2 from row -3 to row 3
+    private final TileGrid grid = new TileGrid(new TileFactory((x, y) -> x == 2 && Math.abs(y) <= 3 ? 0.45 : 0),
+            9, 9, -4, -4);
+
+    @Test
+    public void flowFieldAroundWallTest(){
+        FlowField field = new FlowField();
+        assertTrue(field.update(grid, 0, 0));
+        assertFalse(field.update(grid, 0, 0));
+
+        assertEquals(0, field.distanceAt(0, 0));
+        assertNull(field.directionAt(0, 0));
+        assertEquals(Movable.Direction.RIGHT, field.directionAt(-1, 0));
+        assertEquals(-1, field.distanceAt(2, 0));
+        assertEquals(-1, field.distanceAt(5, 0));
+        // Around the end of the wall at row -4 or row 4
+        assertEquals(12, field.distanceAt(4, 0));
+        assertNotEquals(Movable.Direction.LEFT, field.directionAt(3, 0));
+
+        assertTrue(field.update(grid, 1, 0));
+        assertEquals(1, field.distanceAt(0, 0));
+    }
+
+    @Test
+    public void chaseAroundWallTest(){
+        World world = new World((x, y) -> x == 2 && Math.abs(y) <= 3 ? 0.45 : 0, 3, 40, 0, 0);
+        world.restoreEnemy(new Enemy("Orc", 4, 0, 100, 30, 2, 0));
+        for (int tick = 0; tick < 400; tick++) {
+            world.moveMobs();
+        }
+        Combatant enemy = world.getActiveEnemies().get(0);
+        assertTrue(world.distance(enemy, world.player) < 1.5);
+    }
+}
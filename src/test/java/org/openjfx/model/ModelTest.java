@@ -19,4 +19,20 @@ public class ModelTest {
         assertEquals(0,model.world.player.getYcoord(),0);
     }
 
-}
\ No newline at end of file
+    //  Test that a published snapshot keeps its values while the world keeps changing
+    @Test
+    public void snapshotTest(){
+        model.tick();
+        WorldSnapshot snapshot = model.getLatestSnapshot();
+        double playerX = snapshot.getPlayerX();
+
+        model.post(() -> model.world.player.move(Movable.Direction.RIGHT));
+        model.tick();
+
+        assertEquals(playerX, snapshot.getPlayerX(), 0);
+        assertEquals(playerX + model.world.player.getMoveSpeed(), model.getLatestSnapshot().getPlayerX(), 0.0001);
+        assertEquals(snapshot.getTick() + 1, model.getLatestSnapshot().getTick());
+        assertEquals(model.world.getActiveEnemies().size(), model.getLatestSnapshot().getEnemyCount());
+    }
+
+}
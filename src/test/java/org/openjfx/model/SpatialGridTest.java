@@ -0,0 +1,50 @@
+package org.openjfx.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpatialGridTest {
+
+    private SpatialGrid<Chest> grid = new SpatialGrid<>(16);
+
+    //  Test that only entities within range are removed, also across cell borders and negative coordinates
+    @Test
+    public void removeWithinDistanceTest(){
+        Chest near = new Chest("Chest", 3, 4);
+        Chest acrossCell = new Chest("Chest", -5, 0);
+        Chest far = new Chest("Chest", 20, 20);
+        grid.add(near);
+        grid.add(acrossCell);
+        grid.add(far);
+
+        List<Chest> found = new ArrayList<>();
+        grid.removeWithinDistance(0, 0, 5, found);
+
+        assertEquals(2, found.size());
+        assertTrue(found.contains(near));
+        assertTrue(found.contains(acrossCell));
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    public void removeTest(){
+        Chest chest = new Chest("Chest", 100, -100);
+        grid.add(chest);
+        assertTrue(grid.remove(chest));
+        assertFalse(grid.remove(chest));
+        assertEquals(0, grid.size());
+    }
+
+    //  Test that entities can be looked up by equal but not identical Coordinates
+    @Test
+    public void getAtTest(){
+        Chest chest = new Chest("Chest", -17, 33);
+        grid.add(chest);
+        assertSame(chest, grid.getAt(new Coordinates(-17, 33)));
+        assertNull(grid.getAt(new Coordinates(-17, 34)));
+    }
+}
@@ -0,0 +1,68 @@
+package org.openjfx.model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class WorldSaveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    //  Test that a written and read save restores the player, the enemies, the chests and the populated chunks
+    @Test
+    public void saveAndLoadTest() throws IOException {
+        World world = new World((x, y) -> 0, 11, 200, 2000, 500);
+        world.checkIfEntitiesActive();
+        world.player.setItem(new Weapon("Sword", 20), 0);
+        world.player.decHp(15);
+        world.getActiveEnemies().get(0).decHp(30);
+        world.moveMobs();
+
+        Path path = folder.getRoot().toPath().resolve("world.sav");
+        WorldSave.capture(world).write(path);
+        WorldSave save = WorldSave.read(path);
+        World loaded = save.toWorld((x, y) -> 0);
+
+        assertEquals(11, save.getSeed());
+        assertEquals(85, loaded.player.getHp());
+        assertEquals("Sword", loaded.player.getInventory()[0].getId());
+        assertEquals(world.player.getCoords(), loaded.player.getCoords());
+        assertArrayEquals(sorted(world.getPopulatedChunkKeys()), sorted(loaded.getPopulatedChunkKeys()));
+        assertEquals(states(world), states(loaded));
+
+        //  The saved chunks are not populated a second time
+        loaded.checkIfEntitiesActive();
+        assertEquals(states(world), states(loaded));
+        assertEquals(world.getActiveEnemies().size(), loaded.getActiveEnemies().size());
+    }
+
+    //  Test that a file that is not a save is rejected
+    @Test(expected = IOException.class)
+    public void invalidSaveTest() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("broken.sav");
+        Files.write(path, new byte[]{1, 2, 3});
+        WorldSave.read(path);
+    }
+
+    private static Set<String> states(World world) {
+        Set<String> states = new HashSet<>();
+        world.forEachResidentEnemy(enemy -> states.add(enemy.getId() + enemy.getCoords() + enemy.getHp() + enemy.getDirection()));
+        world.forEachResidentChest(chest -> states.add(chest.getId() + chest.getCoords() + chest.getItem(0).getId()));
+        return states;
+    }
+
+    private static long[] sorted(long[] keys) {
+        long[] copy = keys.clone();
+        java.util.Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -2,7 +2,7 @@ package org.openjfx.model;
 
 import org.junit.Assert;
 import org.junit.Test;
-import org.openjfx.model.tile.Tile;
+import org.openjfx.model.tile.ReadOnlyTileGrid;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,8 +19,8 @@ public class WorldTest {
     public void worldConstructorTest(){
 
         int columns = 0;
-        for (List<Tile> worldrow: world.worldGrid){
-            assertEquals(worldrow.size(), world.worldVerticalSideLength, 0.0);
+        for (int column = 0; column < world.worldGrid.getColumns(); column++){
+            assertEquals(world.worldGrid.getRows(), world.worldVerticalSideLength, 0.0);
             columns++;
         }
         assertEquals(columns, world.worldHorizontalSideLength, 0.0);
@@ -48,4 +48,121 @@ public class WorldTest {
     }
 
 
-}
\ No newline at end of file
+    //  Test that planning the enemy moves in parallel moves chasing enemies the same way as the serial run
+    @Test
+    public void parallelMoveMobsTest(){
+        World serial = new World((x, y) -> 0, 7, 40, 2000, 0);
+        World parallel = new World((x, y) -> 0, 7, 40, 2000, 0);
+        serial.setParallelMoveThreshold(Integer.MAX_VALUE);
+        parallel.setParallelMoveThreshold(2);
+        serial.checkIfEntitiesActive();
+        parallel.checkIfEntitiesActive();
+        assertTrue(parallel.getActiveEnemies().size() > 100);
+
+        for (int tick = 0; tick < 5; tick++) {
+            serial.moveMobs();
+            parallel.moveMobs();
+            assertEquals(enemyCoords(serial), enemyCoords(parallel));
+        }
+    }
+
+    @Test
+    public void sameSeedSameWorldTest(){
+        World first = new World(null, 11, 40, 2000, 200);
+        World second = new World(null, 11, 40, 2000, 200);
+        ReadOnlyTileGrid firstGrid = first.getWorldGrid();
+        ReadOnlyTileGrid secondGrid = second.getWorldGrid();
+        for (int column = 0; column < firstGrid.getColumns(); column++) {
+            for (int row = 0; row < firstGrid.getRows(); row++) {
+                assertEquals(firstGrid.get(column, row), secondGrid.get(column, row));
+            }
+        }
+        for (int tick = 0; tick < 20; tick++) {
+            first.moveMobs();
+            second.moveMobs();
+        }
+        assertTrue(first.getActiveEnemies().size() > 0);
+        assertEquals(enemyCoords(first), enemyCoords(second));
+    }
+
+    @Test
+    public void chaseAroundWallOutsideWorldGridTest(){
+        // The wall is longer than worldGrid is high, the way around it leaves worldGrid
+        World world = new World((x, y) -> x == 2 && Math.abs(y) <= 8 ? 0.45 : 0, 3, 40, 0, 0);
+        world.restoreEnemy(new Enemy("Orc", 4, 0, 100, 30, 2, 0));
+        for (int tick = 0; tick < 600; tick++) {
+            world.moveMobs();
+        }
+        Combatant enemy = world.getActiveEnemies().get(0);
+        assertTrue(world.distance(enemy, world.player) < 1.5);
+    }
+
+    //  Test that a wandering enemy outside worldGrid does not move, only enemies on a long path leave worldGrid
+    @Test
+    public void wanderOutsideWorldGridTest(){
+        World world = new World((x, y) -> 0, 3, 40, 0, 0);
+        world.restoreEnemy(new Enemy("Orc", 15, 0, 100, 30, 2, 0));
+        for (int tick = 0; tick < 100; tick++) {
+            world.moveMobs();
+        }
+        Combatant enemy = world.getActiveEnemies().get(0);
+        assertEquals(15, enemy.getXcoord(), 0);
+        assertEquals(0, enemy.getYcoord(), 0);
+    }
+
+    //  Test that the broadphase hits the same defenders and asks canAttack as often as checking every active enemy in list order
+    @Test
+    public void broadphaseAttackTest(){
+        World crowded = new World((x, y) -> 0, 5, 16, 2000, 0);
+        crowded.checkIfEntitiesActive();
+        for (int tick = 0; tick < 10; tick++) {
+            crowded.moveMobs();
+            for (Movable.Direction direction : Movable.Direction.values()) {
+                crowded.player.setDirection(direction);
+                crowded.player.attackCooldownTicker = 20;
+                List<Combatant> all = crowded.combatantAttacks(crowded.player, new ArrayList<>(crowded.getActiveEnemies()));
+                final int cooldown = crowded.player.getAttackCooldownTicker();
+                crowded.player.attackCooldownTicker = 20;
+                assertEquals(all, crowded.combatantAttacks(crowded.player, crowded.getActiveEnemies()));
+                assertEquals(cooldown, crowded.player.getAttackCooldownTicker());
+            }
+        }
+        assertTrue(crowded.isPathFree(crowded.player, crowded.getActiveEnemies()));
+    }
+
+    //  Test that off screen enemies are updated on fewer ticks and on every tick again once Player comes close
+    @Test
+    public void levelOfDetailTest(){
+        World world = new World((x, y) -> 0, 3, 40, 0, 0);
+        Enemy far = new Enemy("Orc", 18, 0, 100, 30, 2, 0);
+        Enemy halfRate = new Enemy("Orc", 0, 14, 100, 30, 2, 0);
+        Enemy near = new Enemy("Orc", 5, 0, 100, 30, 2, 0);
+        int farUpdates = 0;
+        int halfRateUpdates = 0;
+        for (long tick = 0; tick < 8; tick++) {
+            world.restoreTick(tick);
+            farUpdates += world.isScheduled(far) ? 1 : 0;
+            halfRateUpdates += world.isScheduled(halfRate) ? 1 : 0;
+            assertTrue(world.isScheduled(near));
+        }
+        assertEquals(2, farUpdates);
+        assertEquals(4, halfRateUpdates);
+
+        for (int step = 0; step < 36; step++) {
+            world.player.move(Movable.Direction.RIGHT);
+        }
+        for (long tick = 0; tick < 8; tick++) {
+            world.restoreTick(tick);
+            assertTrue(world.isScheduled(far));
+        }
+    }
+
+    private static List<Coordinates> enemyCoords(World world) {
+        List<Coordinates> coords = new ArrayList<>();
+        for (Combatant enemy : world.getActiveEnemies()) {
+            coords.add(enemy.getCoords());
+        }
+        return coords;
+    }
+
+}
@@ -0,0 +1,37 @@
+package org.openjfx.model.noise;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachedNoiseGeneratorTest {
+
+    private int evaluations = 0;
+    private CachedNoiseGenerator cache = new CachedNoiseGenerator((x, y) -> {
+        evaluations++;
+        return (x + y) / 1000;
+    }, 16);
+
+    @Test
+    public void hitAndMissTest(){
+        Assert.assertEquals(0.003, cache.getValue(1, 2), 0);
+        Assert.assertEquals(0.003, cache.getValue(1, 2), 0);
+        Assert.assertEquals(-0.001, cache.getValue(-3, 2), 0);
+
+        Assert.assertEquals(2, evaluations);
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(2, cache.getMisses());
+    }
+
+    //  Test that the cache never holds more than its capacity and still returns the right values after evicting
+    @Test
+    public void evictionTest(){
+        for (int x = 0; x < 100; x++) {
+            cache.getValue(x, 0);
+        }
+        Assert.assertEquals(100, evaluations);
+        for (int x = 0; x < 100; x++) {
+            Assert.assertEquals(x / 1000.0, cache.getValue(x, 0), 0);
+        }
+        Assert.assertTrue(cache.getHits() <= cache.getCapacity());
+    }
+}
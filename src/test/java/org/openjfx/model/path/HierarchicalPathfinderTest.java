@@ -0,0 +1,54 @@
+package org.openjfx.model.path;
+
+import org.junit.Test;
+import org.openjfx.model.Combatant;
+import org.openjfx.model.Coordinates;
+import org.openjfx.model.Enemy;
+import org.openjfx.model.tile.TileFactory;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HierarchicalPathfinderTest {
+
+    // Mountain wall on column 20 from row -40 to row 40
+    private final TileFactory tileFactory = new TileFactory((x, y) -> x == 20 && Math.abs(y) <= 40 ? 0.45 : 0);
+
+    @Test
+    public void pathAroundWallTest(){
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(tileFactory, 16, 64, 2);
+        List<Coordinates> path = pathfinder.findPath(0, 0, 40, 0);
+
+        assertEquals(new Coordinates(0, 0), path.get(0));
+        assertEquals(new Coordinates(40, 0), path.get(path.size() - 1));
+        for (int i = 1; i < path.size(); i++) {
+            Coordinates from = path.get(i - 1);
+            Coordinates to = path.get(i);
+            assertEquals(1, Math.abs(to.getxCoord() - from.getxCoord()) + Math.abs(to.getyCoord() - from.getyCoord()), 0);
+            assertFalse(tileFactory.generateTile(to.getxCoord(), to.getyCoord()).isSolid());
+        }
+        // The shortest way goes around an end of the wall, 40 steps across and 41 steps there and back
+        assertTrue(path.size() - 1 >= 40 + 2 * 41);
+        assertTrue(path.size() - 1 <= 2 * (40 + 2 * 41));
+        assertTrue(pathfinder.getCachedChunkCount() <= 64);
+
+        assertEquals(5, pathfinder.findPath(1, 1, 5, 1).size());
+        assertTrue(pathfinder.findPath(0, 0, 20, 0).isEmpty());
+    }
+
+    @Test
+    public void pathFollowerTest(){
+        HierarchicalPathfinder pathfinder = new HierarchicalPathfinder(tileFactory, 16, 64, 2);
+        Combatant enemy = new Enemy("Orc", 0, 0, 100, 30, 2, 0);
+        PathFollower follower = new PathFollower(pathfinder.findPath(0, 0, 3, -2));
+        int steps = 0;
+        while (follower.step(enemy)) {
+            steps++;
+        }
+        assertTrue(follower.isFinished());
+        assertEquals(50, steps);
+        assertEquals(3, enemy.getXcoord(), 0.05);
+        assertEquals(-2, enemy.getYcoord(), 0.05);
+    }
+}
@@ -1,7 +1,24 @@
 package org.openjfx.model.tile;
 
+import org.junit.Assert;
+import org.junit.Test;
+
 public class TileFactoryTest {
 
+    private TileFactory factory = new TileFactory((x, y) -> ((x * 7 + y * 13) % 100 + 100) % 100 / 100.0);
+
+    //  Test that the batch methods generate the same tiles as generateTile
+    @Test
+    public void fillChunkTest(){
+        byte[] chunk = new byte[6 * 4];
+        factory.fillChunk(chunk, -3, -2, 6, 4);
+        for (int row = 0; row < 4; row++) {
+            for (int column = 0; column < 6; column++) {
+                Assert.assertEquals(factory.generateTile(column - 3, row - 2).getId(), chunk[row * 6 + column]);
+            }
+        }
+    }
+
 
 //    @Test
 //    public void createTilesTest(){
@@ -0,0 +1,32 @@
+package org.openjfx.model.tile;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TileGridTest {
+
+    private TileFactory factory = new TileFactory((x, y) -> ((x * 7 + y * 13) % 100 + 100) % 100 / 100.0);
+    private TileGrid grid = new TileGrid(factory, 5, 3, -2, -1);
+
+    //  Test that every tile keeps matching its position after scrolling in all directions
+    @Test
+    public void scrollTest(){
+        grid.scrollTo(-1, -1);
+        assertTilesMatchPositions();
+        grid.scrollTo(-3, 0);
+        assertTilesMatchPositions();
+        grid.scrollTo(-3, -2);
+        assertTilesMatchPositions();
+        grid.scrollTo(40, 40);
+        assertTilesMatchPositions();
+    }
+
+    private void assertTilesMatchPositions() {
+        for (int column = 0; column < grid.getColumns(); column++) {
+            for (int row = 0; row < grid.getRows(); row++) {
+                assertEquals(factory.generateTile(grid.getMinX() + column, grid.getMinY() + row), grid.get(column, row));
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.openjfx.utils.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongHashMapTest {
+
+    private LongHashMap<String> map = new LongHashMap<>();
+
+    @Test
+    public void putGetRemoveTest(){
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(-1L, "b"));
+        assertEquals("a", map.put(1L, "c"));
+        assertEquals("c", map.get(1L));
+        assertEquals(2, map.size());
+
+        assertEquals("b", map.remove(-1L));
+        assertNull(map.get(-1L));
+        assertNull(map.remove(-1L));
+        assertEquals(1, map.size());
+    }
+
+    //  Test that entries stay reachable when others are removed from the middle of a probe sequence and while growing
+    @Test
+    public void manyKeysTest(){
+        for (long key = 0; key < 10000; key++) {
+            map.put(key << 32, Long.toString(key));
+        }
+        for (long key = 0; key < 10000; key += 2) {
+            map.remove(key << 32);
+        }
+        assertEquals(5000, map.size());
+        for (long key = 0; key < 10000; key++) {
+            if (key % 2 == 0) {
+                assertFalse(map.containsKey(key << 32));
+            } else {
+                assertEquals(Long.toString(key), map.get(key << 32));
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.openjfx.utils.collection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongIntHashMapTest {
+
+    private LongIntHashMap map = new LongIntHashMap();
+
+    @Test
+    public void putGetRemoveTest(){
+        map.put(1L, 5);
+        map.put(-1L, 0);
+        map.put(1L, 7);
+        assertEquals(7, map.getOrDefault(1L, -1));
+        assertEquals(0, map.getOrDefault(-1L, -1));
+        assertEquals(-1, map.getOrDefault(2L, -1));
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove(-1L));
+        assertFalse(map.containsKey(-1L));
+        assertFalse(map.remove(-1L));
+        assertEquals(1, map.size());
+    }
+
+    //  Test that entries stay reachable when others are removed from the middle of a probe sequence and while growing
+    @Test
+    public void manyKeysTest(){
+        for (int key = 0; key < 10000; key++) {
+            map.put((long) key << 32, key);
+        }
+        for (int key = 0; key < 10000; key += 2) {
+            map.remove((long) key << 32);
+        }
+        assertEquals(5000, map.size());
+        for (int key = 0; key < 10000; key++) {
+            assertEquals(key % 2 == 0 ? -1 : key, map.getOrDefault((long) key << 32, -1));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.openjfx.utils.event;
+
+import org.junit.Test;
+import org.openjfx.model.EventMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class EventTest {
+
+    private List<Object> received = new ArrayList<>();
+    private EventListener<EventMessage> recorder = new EventListener<EventMessage>() {
+        @Override
+        public void func(EventMessage emsg, Object data) {
+            received.add(data);
+        }
+    };
+
+    //  Test that a listener can remove itself while the event is dispatched to it
+    @Test
+    public void removeWhileDispatchingTest(){
+        Event<EventMessage> event = new Event<>();
+        event.addListener(new EventListener<EventMessage>() {
+            @Override
+            public void func(EventMessage emsg, Object data) {
+                event.removeListener(this);
+            }
+        });
+        event.addListener(recorder);
+
+        event.dispatch(EventMessage.UPDATE, 1);
+        event.dispatch(EventMessage.UPDATE, 2);
+
+        assertEquals(2, received.size());
+    }
+
+    //  Test that pending UPDATE messages are collapsed into one delivery of the latest data
+    @Test
+    public void coalescingTest(){
+        List<Runnable> scheduled = new ArrayList<>();
+        Event<EventMessage> event = new Event<>(scheduled::add, true);
+        event.addListener(recorder);
+
+        event.dispatch(EventMessage.UPDATE, 1);
+        event.dispatch(EventMessage.UPDATE, 2);
+        event.dispatch(EventMessage.UPDATE, 3);
+        assertEquals(1, scheduled.size());
+        assertTrue(received.isEmpty());
+
+        scheduled.get(0).run();
+        assertEquals(1, received.size());
+        assertEquals(3, received.get(0));
+
+        event.dispatch(EventMessage.UPDATE, null);
+        assertEquals(2, scheduled.size());
+        //  The delivery of a message is reused instead of allocated on every dispatch
+        assertSame(scheduled.get(0), scheduled.get(1));
+        scheduled.get(1).run();
+        assertNull(received.get(1));
+    }
+}
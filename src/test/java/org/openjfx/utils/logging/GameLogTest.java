@@ -0,0 +1,50 @@
+package org.openjfx.utils.logging;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class GameLogTest {
+
+    private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private PrintStream out = new PrintStream(bytes, true);
+
+    //  Test that events at or above the level are written out and events below it are not
+    @Test
+    public void levelTest(){
+        GameLog log = new GameLog(GameLog.Level.INFO, out, 16);
+        log.movement(GameLog.Level.DEBUG, "Player", 1, 2, "UP");
+        log.combat(GameLog.Level.INFO, "Player", "Goblin", 20, 80);
+        log.close();
+
+        String written = bytes.toString();
+        assertFalse(written.contains("move"));
+        assertTrue(written.contains("INFO hit attacker=Player defender=Goblin damage=20 hp=80"));
+        assertEquals(1, written.split(System.lineSeparator()).length);
+    }
+
+    //  Test that a log that is OFF writes nothing
+    @Test
+    public void offTest(){
+        GameLog log = new GameLog(GameLog.Level.OFF, out, 16);
+        assertFalse(log.isEnabled(GameLog.Level.WARN));
+        log.combat(GameLog.Level.WARN, "Player", "Goblin", 20, 80);
+        log.close();
+        assertEquals(0, bytes.size());
+    }
+
+    //  Test that every event is either written out or counted as dropped
+    @Test
+    public void overflowTest(){
+        GameLog log = new GameLog(GameLog.Level.DEBUG, out, 4);
+        for (int i = 0; i < 1000; i++) {
+            log.movement(GameLog.Level.DEBUG, "Rat", i, 0, "LEFT");
+        }
+        log.close();
+        int written = bytes.toString().split(System.lineSeparator()).length;
+        assertEquals(1000, written + log.getDroppedCount());
+    }
+}
@@ -0,0 +1,32 @@
+package org.openjfx.utils.random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RandomStreamsTest {
+
+    //  Test that streams are reproducible and that neighbouring stream ids give unrelated streams
+    @Test
+    public void deriveTest(){
+        assertEquals(RandomStreams.stream(42, 7).nextLong(), RandomStreams.stream(42, 7).nextLong());
+        assertNotEquals(RandomStreams.derive(42, 7), RandomStreams.derive(42, 8));
+        assertNotEquals(RandomStreams.derive(42, 7), RandomStreams.derive(43, 7));
+        assertNotEquals(RandomStreams.derive(42, 1, 2), RandomStreams.derive(42, 2, 1));
+    }
+
+    //  Test that the hash draws stay in range and are spread evenly
+    @Test
+    public void drawTest(){
+        int[] counts = new int[5];
+        for (long i = 0; i < 50000; i++) {
+            long hash = RandomStreams.derive(1, i);
+            double unit = RandomStreams.unitDouble(hash);
+            assertTrue(unit >= 0 && unit < 1);
+            counts[RandomStreams.boundedInt(hash, 5)]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000, count, 500);
+        }
+    }
+}